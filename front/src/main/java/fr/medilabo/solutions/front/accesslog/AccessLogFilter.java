@@ -0,0 +1,51 @@
+package fr.medilabo.solutions.front.accesslog;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Ajoute chaque requête reçue au journal d'accès, y compris celles refusées par la
+ * sécurité.
+ *
+ * <p>
+ * Enregistré avant la chaîne Spring Security, le filtre ne voit plus le contexte de
+ * sécurité une fois la requête traitée : l'utilisateur est lu dans l'attribut
+ * {@link #USER_ATTR}, renseigné par {@code JwtAuthenticationFilter}.
+ * </p>
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    /** Attribut de la requête portant l'utilisateur authentifié. */
+    public static final String USER_ATTR = AccessLogFilter.class.getName() + ".user";
+
+    private final AccessLogWriter accessLog;
+
+    public AccessLogFilter(AccessLogWriter accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            accessLog.log(new AccessEvent(
+                    System.currentTimeMillis(),
+                    (String) request.getAttribute(USER_ATTR),
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    response.getStatus(),
+                    (System.nanoTime() - start) / 1_000,
+                    request.getRemoteAddr()));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package fr.medilabo.solutions.front.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * File circulaire bornée sans verrou, à plusieurs producteurs et un seul
+ * consommateur.
+ *
+ * <p>
+ * Chaque case porte un numéro de séquence : un producteur réserve une position par
+ * CAS sur {@code tail}, y écrit l'élément puis publie la case en avançant sa
+ * séquence ; le consommateur ne lit une case que lorsqu'elle est publiée. Une file
+ * pleine est signalée immédiatement par {@link #offer}, sans attente.
+ * </p>
+ *
+ * <p>
+ * Copie à l'identique de la classe de la gateway, où se trouvent ses tests : chaque
+ * service est construit seul, sans artefact commun.
+ * </p>
+ */
+final class AccessLogRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Avancé uniquement par le consommateur
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity la capacité, arrondie à la puissance de deux supérieure
+     */
+    AccessLogRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacité trop faible : " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Ajoute un élément, depuis n'importe quel thread.
+     *
+     * @return {@code false} si la file est pleine
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Retire jusqu'à {@code max} éléments publiés, dans l'ordre. Réservé au seul
+     * consommateur.
+     *
+     * @return le nombre d'éléments retirés
+     */
+    int drain(Consumer<? super E> consumer, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            E element = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, position + capacity);
+            position++;
+            drained++;
+            consumer.accept(element);
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    /**
+     * @return le nombre approximatif d'éléments en attente
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import feign.Request;
 import fr.medilabo.solutions.front.config.FrontFeignConfig;
 import fr.medilabo.solutions.front.dto.PatientDto;
 import fr.medilabo.solutions.front.dto.PatientPageDto;
@@ -16,8 +17,22 @@ import fr.medilabo.solutions.front.dto.PatientPageDto;
 @FeignClient(name = "gateway", configuration = FrontFeignConfig.class)
 public interface GatewayServiceClient {
 
-    @GetMapping("/api/patient")
-    List<PatientDto> getAllPatients();
+    // Seules les colonnes affichées dans la liste de l'accueil sont demandées
+    @GetMapping("/api/patient/page?fields=id,gender,lastname,firstname,birthDate")
+    PatientPageDto getPatientPage(@RequestParam("page") int page, @RequestParam("size") int size,
+            @RequestParam("sort") String sort);
+
+    @GetMapping("/api/patient/scroll")
+    PatientPageDto scrollPatients(@RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("size") int size);
+
+    @GetMapping("/api/patient/search")
+    List<PatientDto> searchPatients(@RequestParam("q") String query, @RequestParam("limit") int limit);
+
+    // Même recherche avec ses propres délais de connexion et de lecture
+    @GetMapping("/api/patient/search")
+    List<PatientDto> searchPatients(@RequestParam("q") String query, @RequestParam("limit") int limit,
+            Request.Options options);
 
     @GetMapping("/api/patient/{id}")
     PatientDto getPatientById(@PathVariable("id") Long patientId);
@@ -0,0 +1,146 @@
+package fr.medilabo.solutions.front.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpHeaders;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link Client} Feign qui garde en mémoire les dernières réponses GET portant un
+ * ETag et les revalide avec {@code If-None-Match}.
+ *
+ * <p>
+ * Si la passerelle répond 304, le corps gardé en mémoire est renvoyé comme une
+ * réponse 200 : une donnée inchangée ne coûte plus que les en-têtes. Les réponses
+ * sont indexées par URL et par utilisateur (cookie et en-tête {@code Authorization}),
+ * pour qu'un utilisateur ne reçoive jamais la réponse d'un autre.
+ * </p>
+ *
+ * <p>
+ * Le cache est borné en nombre d'entrées (les moins récemment utilisées sont
+ * retirées) et les corps trop volumineux ne sont pas gardés.
+ * </p>
+ */
+@Slf4j
+public class ConditionalGetClient implements Client {
+
+    private final Client delegate;
+    private final int maxBodySize;
+    private final Map<String, CachedResponse> responses;
+
+    /**
+     * @param delegate    le client qui envoie réellement les requêtes
+     * @param maxEntries  nombre maximum de réponses gardées
+     * @param maxBodySize taille maximum, en octets, d'un corps gardé
+     */
+    public ConditionalGetClient(Client delegate, int maxEntries, int maxBodySize) {
+        this.delegate = delegate;
+        this.maxBodySize = maxBodySize;
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+
+        String key = cacheKey(request);
+        CachedResponse cached = responses.get(key);
+        Request sent = cached == null ? request : withIfNoneMatch(request, cached.etag());
+        Response response = delegate.execute(sent, options);
+
+        if (response.status() == 304 && cached != null) {
+            response.close();
+            log.debug("Réponse inchangée pour {}", request.url());
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .headers(cached.headers())
+                    .body(cached.body())
+                    .request(request)
+                    .build();
+        }
+
+        String etag = firstHeader(response, HttpHeaders.ETAG);
+        if (response.status() != 200 || etag == null || response.body() == null) {
+            responses.remove(key);
+            return response;
+        }
+
+        Integer length = response.body().length();
+        if (length != null && length > maxBodySize) {
+            responses.remove(key);
+            return response;
+        }
+        InputStream stream = response.body().asInputStream();
+        byte[] body = stream.readNBytes(maxBodySize + 1);
+        if (body.length > maxBodySize) {
+            // Corps plus grand qu'annoncé : il est renvoyé en entier sans être gardé
+            responses.remove(key);
+            return response.toBuilder()
+                    .body(new SequenceInputStream(new ByteArrayInputStream(body), stream), null)
+                    .build();
+        }
+        stream.close();
+        responses.put(key, new CachedResponse(etag, response.headers(), body));
+        return response.toBuilder().body(body).build();
+    }
+
+    private static Request withIfNoneMatch(Request request, String etag) {
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        headers.put(HttpHeaders.IF_NONE_MATCH, List.of(etag));
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(),
+                request.charset(), request.requestTemplate());
+    }
+
+    /**
+     * Clé d'une réponse : l'URL et une empreinte des informations d'identification,
+     * pour ne pas garder le jeton lui-même dans les clés.
+     */
+    private static String cacheKey(Request request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(request.headers().get(HttpHeaders.COOKIE)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.headers().get(HttpHeaders.AUTHORIZATION)).getBytes(StandardCharsets.UTF_8));
+            return request.url() + '#' + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static String firstHeader(Response response, String name) {
+        return response.headers().entrySet().stream()
+                .filter(header -> header.getKey().equalsIgnoreCase(name))
+                .flatMap(header -> header.getValue().stream())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private record CachedResponse(String etag, Map<String, Collection<String>> headers, byte[] body) {
+    }
+}
@@ -0,0 +1,96 @@
+package fr.medilabo.solutions.front.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transport HTTP de {@link fr.medilabo.solutions.front.client.GatewayServiceClient}.
+ *
+ * <p>
+ * Par défaut, Feign passe par un pool Apache HttpClient 5 : connexions gardées
+ * ouvertes entre deux appels, bornées au total et par instance de la passerelle,
+ * fermées après {@code app.feign.pool.idle-timeout} d'inactivité ou
+ * {@code app.feign.pool.time-to-live} d'existence. Un appel attend au plus
+ * {@code app.feign.pool.acquire-timeout} qu'une connexion se libère. Le pool est
+ * mesuré par {@link InstrumentedConnectionManager}.
+ * </p>
+ *
+ * <p>
+ * Le transport se choisit par les propriétés de Spring Cloud OpenFeign :
+ * {@code spring.cloud.openfeign.httpclient.hc5.enabled=false} et
+ * {@code spring.cloud.openfeign.http2client.enabled=true} passent au client HTTP/2 du
+ * JDK, qui multiplexe les appels sur une seule connexion quand la passerelle accepte
+ * HTTP/2 ({@code server.http2.enabled}), et revient sinon à HTTP/1.1. Ce client ne
+ * publie pas de métriques de pool.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.cloud.openfeign.httpclient.hc5.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class FeignTransportConfig {
+
+    /**
+     * @param maxConnections          le nombre maximum de connexions, toutes instances confondues
+     * @param maxPerRoute             le nombre maximum de connexions vers une instance de la passerelle
+     * @param timeToLive              la durée de vie maximum d'une connexion (ex. {@code 5m})
+     * @param validateAfterInactivity l'inactivité au-delà de laquelle une connexion est vérifiée avant d'être prêtée
+     * @param meterRegistry           le registre des métriques du pool
+     * @return le pool de connexions vers la passerelle
+     */
+    @Bean(destroyMethod = "close")
+    public InstrumentedConnectionManager gatewayConnectionManager(
+            @Value("${app.feign.pool.max-connections:200}") int maxConnections,
+            @Value("${app.feign.pool.max-per-route:50}") int maxPerRoute,
+            @Value("${app.feign.pool.time-to-live:5m}") String timeToLive,
+            @Value("${app.feign.pool.validate-after-inactivity:2s}") String validateAfterInactivity,
+            MeterRegistry meterRegistry) {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(meterRegistry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.ofMilliseconds(DurationStyle.detectAndParse(timeToLive).toMillis()))
+                .setValidateAfterInactivity(
+                        TimeValue.ofMilliseconds(DurationStyle.detectAndParse(validateAfterInactivity).toMillis()))
+                .build());
+        return connectionManager;
+    }
+
+    /**
+     * Client HTTP utilisé par Feign à la place de {@code HttpURLConnection}. Les délais
+     * de connexion et de lecture restent ceux de Feign
+     * ({@code spring.cloud.openfeign.client.config.gateway.*}).
+     *
+     * @param connectionManager le pool de connexions
+     * @param idleTimeout       l'inactivité au-delà de laquelle une connexion libre est fermée
+     * @param acquireTimeout    l'attente maximum d'une connexion du pool
+     * @return le client HTTP
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient gatewayHttpClient(InstrumentedConnectionManager connectionManager,
+            @Value("${app.feign.pool.idle-timeout:30s}") String idleTimeout,
+            @Value("${app.feign.pool.acquire-timeout:2s}") String acquireTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(
+                                Timeout.ofMilliseconds(DurationStyle.detectAndParse(acquireTimeout).toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(DurationStyle.detectAndParse(idleTimeout).toMillis()))
+                .disableAutomaticRetries()
+                // Le client est partagé entre utilisateurs : aucun cookie reçu n'est rejoué
+                .disableCookieManagement()
+                .build();
+    }
+}
@@ -1,8 +1,12 @@
 package fr.medilabo.solutions.front.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
+import feign.Capability;
+import feign.Client;
 import feign.RequestInterceptor;
 
 /**
@@ -20,6 +24,11 @@ import feign.RequestInterceptor;
  * Ceci est généralement utilisé pour autoriser les jetons JWT uniquement lorsque le
  * frontend est la source de l'appel.
  * </p>
+ *
+ * <p>
+ * Les requêtes GET passent par un {@link ConditionalGetClient}, qui revalide les
+ * réponses déjà reçues avec leur ETag au lieu de les télécharger à nouveau.
+ * </p>
  */
 @Configuration
 public class FrontFeignConfig {
@@ -34,4 +43,25 @@ public class FrontFeignConfig {
     public RequestInterceptor frontInternalHeader() {
         return template -> template.header("X-Internal-Front", "true");
     }
+
+    /**
+     * Définit une {@link Capability} qui enveloppe le client HTTP de Feign dans un
+     * {@link ConditionalGetClient}.
+     *
+     * @param maxEntries  nombre maximum de réponses gardées pour revalidation
+     * @param maxBodySize taille maximum d'une réponse gardée (ex. {@code 1MB})
+     * @return la {@link Capability} configurée
+     */
+    @Bean
+    public Capability conditionalGetCapability(
+            @Value("${app.feign.etag-cache.max-entries:500}") int maxEntries,
+            @Value("${app.feign.etag-cache.max-body-size:1MB}") DataSize maxBodySize) {
+        int maxBodyBytes = (int) Math.min(Integer.MAX_VALUE, maxBodySize.toBytes());
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return new ConditionalGetClient(client, maxEntries, maxBodyBytes);
+            }
+        };
+    }
 }
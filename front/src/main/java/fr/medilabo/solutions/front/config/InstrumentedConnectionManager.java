@@ -0,0 +1,76 @@
+package fr.medilabo.solutions.front.config;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Pool de connexions HTTP vers la passerelle qui mesure l'attente et la
+ * réutilisation des connexions.
+ *
+ * <p>
+ * Métriques, en plus de l'occupation du pool ({@code httpcomponents.httpclient.pool.*}
+ * avec {@code httpclient=gateway} : connexions prêtées et libres, requêtes en attente,
+ * maximum) :
+ * </p>
+ * <ul>
+ * <li>{@code front.gateway.pool.wait} : temps passé à attendre une connexion du pool ;</li>
+ * <li>{@code front.gateway.pool.leases} : connexions obtenues, avec
+ * {@code reused=true} si elle était déjà ouverte (keep-alive) et {@code reused=false}
+ * s'il a fallu en ouvrir une nouvelle.</li>
+ * </ul>
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final String POOL_NAME = "gateway";
+
+    private final Timer waitTimer;
+    private final Counter reused;
+    private final Counter created;
+
+    public InstrumentedConnectionManager(MeterRegistry meterRegistry) {
+        this.waitTimer = Timer.builder("front.gateway.pool.wait")
+                .description("Attente d'une connexion du pool vers la passerelle")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.reused = Counter.builder("front.gateway.pool.leases").tag("reused", "true").register(meterRegistry);
+        this.created = Counter.builder("front.gateway.pool.leases").tag("reused", "false").register(meterRegistry);
+        new PoolingHttpClientConnectionManagerMetricsBinder(this, POOL_NAME).bindTo(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    ConnectionEndpoint endpoint = lease.get(timeout);
+                    (endpoint.isConnected() ? reused : created).increment();
+                    return endpoint;
+                } finally {
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return lease.cancel();
+            }
+        };
+    }
+}
@@ -3,13 +3,10 @@ package fr.medilabo.solutions.front.config;
 import java.util.Collections;
 
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
+import fr.medilabo.solutions.front.security.JwtContext;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -24,9 +21,10 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  *
  * <p>
- * Il accède à la requête HTTP actuelle en utilisant le
- * {@link RequestContextHolder} de Spring, extrait le cookie "jwt" et
- * l'attache à l'en-tête "Cookie" de la requête Feign.
+ * Le JWT est celui de {@link JwtContext#currentJwt()} : le cookie "jwt" de la
+ * requête HTTP actuelle, ou, hors du thread de la requête, celui du
+ * {@link JwtContext} capturé à la soumission de la tâche. Il est attaché à
+ * l'en-tête "Cookie" de la requête Feign.
  * </p>
  *
  * <p>
@@ -49,30 +47,19 @@ public class JwtCookieFeignInterceptor implements RequestInterceptor {
     @Override
     public void apply(RequestTemplate template) {
 
-        ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-
-        if (attrs == null)
-            return;
-
-        HttpServletRequest request = attrs.getRequest();
-        if (request == null || request.getCookies() == null)
+        String jwt = JwtContext.currentJwt();
+        if (jwt == null)
             return;
 
-        for (Cookie c : request.getCookies()) {
-            if (COOKIE_NAME.equals(c.getName())) {
-
-                String newCookie = COOKIE_NAME + '=' + c.getValue();
+        String newCookie = COOKIE_NAME + '=' + jwt;
 
-                if (template.headers().containsKey("Cookie")) {
-                    String existing = template.headers()
-                            .getOrDefault("Cookie", Collections.emptyList())
-                            .stream().findFirst().orElse("");
-                    template.header("Cookie", existing + "; " + newCookie);
-                } else {
-                    template.header("Cookie", newCookie);
-                }
-                break;
-            }
+        if (template.headers().containsKey("Cookie")) {
+            String existing = template.headers()
+                    .getOrDefault("Cookie", Collections.emptyList())
+                    .stream().findFirst().orElse("");
+            template.header("Cookie", existing + "; " + newCookie);
+        } else {
+            template.header("Cookie", newCookie);
         }
     }
 }
@@ -4,36 +4,61 @@ import fr.medilabo.solutions.front.dto.PatientDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import feign.Request;
 import fr.medilabo.solutions.front.client.GatewayServiceClient;
 import fr.medilabo.solutions.front.dto.PatientPageDto;
+import fr.medilabo.solutions.front.service.PatientListService;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 public class HomeController {
 
     private static final Logger logger = LoggerFactory.getLogger(HomeController.class);
 
+    private static final int SUGGESTION_LIMIT = 10;
+    private static final int SEARCH_LIMIT = 50;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String DEFAULT_SORT = "lastname,asc";
+    private static final Set<String> SORT_FIELDS = Set.of("id", "gender", "lastname", "firstname", "birthDate");
+
     @Autowired
     private GatewayServiceClient gatewayServiceClient;
 
+    // Une suggestion en retard n'est plus utile : elle est abandonnée plus tôt
+    @Value("${app.gateway.suggestion-timeout:1s}")
+    private String suggestionTimeout;
+
     @Autowired
-    private CacheManager cacheManager;
+    private PatientListService patientListService;
 
     /**
-     * Gère les requêtes GET vers l'endpoint "/home" et affiche une liste paginée
-     * de patients.
+     * Gère les requêtes GET vers l'endpoint "/home" et affiche une page de la
+     * liste des patients.
+     *
+     * Cette méthode récupère une seule page de patients, triée côté serveur, depuis
+     * le service gateway au travers du cache de {@link PatientListService}, puis
+     * ajoute les attributs nécessaires au modèle pour le rendu dans la vue "home" :
+     * le coût de la page ne dépend pas du nombre de patients.
      *
-     * Cette méthode récupère les patients depuis le service gateway
-     * puis ajoute les attributs nécessaires au modèle pour le rendu dans la vue "home".
+     * Si un texte de recherche est fourni, seuls les patients dont le nom ou le
+     * prénom commence par ce texte sont affichés, sans pagination.
      *
+     * @param query   le texte de recherche (facultatif)
+     * @param page    le numéro de la page, à partir de 0
+     * @param size    le nombre de patients par page, borné à {@value #MAX_PAGE_SIZE}
+     * @param sort    le champ de tri suivi de la direction, par exemple {@code lastname,desc}
      * @param model   l'objet modèle Spring MVC utilisé pour transmettre les données à la vue
      * @return le nom du template de vue ("home") à rendre
      *
@@ -41,22 +66,29 @@ public class HomeController {
      *                   depuis le service gateway
      */
     @GetMapping("/front/home")
-    @Cacheable(value = "patient")
-    public String home(Model model) {
-        // Affichage du contenu du cache
-        if (cacheManager != null) {
-            org.springframework.cache.Cache cache = cacheManager.getCache("patient");
-            if (cache != null) {
-                logger.debug("Cache 'patient' est présent : {}", cache.getName());
-                logger.debug("Cache natif : {}", cache.getNativeCache());
+    public String home(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "sort", defaultValue = DEFAULT_SORT) String sort,
+            Model model) {
+        boolean searching = query != null && !query.isBlank();
+        String pageSort = normalizeSort(sort);
+        model.addAttribute("q", query);
+        model.addAttribute("sortField", pageSort.substring(0, pageSort.indexOf(',')));
+        model.addAttribute("sortDirection", pageSort.substring(pageSort.indexOf(',') + 1));
+        try {
+            if (searching) {
+                List<PatientDto> patients = gatewayServiceClient.searchPatients(query, SEARCH_LIMIT);
+                model.addAttribute("patients", patients);
+                logger.info("Successfully with {} patients", patients.size());
             } else {
-                logger.debug("Cache 'patient' non trouvé");
+                PatientPageDto patientPage = patientListService.getPage(Math.max(0, page),
+                        Math.max(1, Math.min(size, MAX_PAGE_SIZE)), pageSort);
+                model.addAttribute("patients", patientPage.getContent());
+                model.addAttribute("page", patientPage);
+                logger.info("Successfully with page {} of {} ({} patients)", patientPage.getNumber(),
+                        patientPage.getTotalPages(), patientPage.getNumberOfElements());
             }
-        }
-        try {
-            List<PatientDto> patientPageDto = gatewayServiceClient.getAllPatients();
-            model.addAttribute("patients", patientPageDto);
-            logger.info("Successfully with {} patients", patientPageDto.size());
         } catch (Exception e) {
             logger.error("Error retrieving patients with pagination: {}", e.getMessage());
             model.addAttribute("error", "Erreur lors de la récupération des patients");
@@ -64,4 +96,43 @@ public class HomeController {
         return "home";
     }
 
-}
\ No newline at end of file
+    /**
+     * Ramène le tri demandé à un champ affiché dans la liste et à une direction
+     * connue, pour ne jamais transmettre de tri invalide à la passerelle.
+     *
+     * @param sort le tri demandé, par exemple {@code lastname,desc}
+     * @return le tri sous la forme {@code champ,asc} ou {@code champ,desc}
+     */
+    private static String normalizeSort(String sort) {
+        String[] parts = sort.split(",");
+        String field = SORT_FIELDS.contains(parts[0].trim()) ? parts[0].trim() : "lastname";
+        String direction = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim()) ? "desc" : "asc";
+        return field + "," + direction;
+    }
+
+    /**
+     * Renvoie les suggestions de patients pour la saisie semi-automatique du champ
+     * de recherche de la page d'accueil.
+     *
+     * @param query le texte saisi
+     * @return les patients dont le nom ou le prénom commence par le texte saisi,
+     *         ou une liste vide en cas d'erreur ou si la passerelle ne répond pas
+     *         dans {@code app.gateway.suggestion-timeout}
+     */
+    @GetMapping("/front/patient/search")
+    @ResponseBody
+    public List<PatientDto> searchSuggestions(@RequestParam("q") String query) {
+        if (query.isBlank()) {
+            return List.of();
+        }
+        try {
+            Duration timeout = DurationStyle.detectAndParse(suggestionTimeout);
+            return gatewayServiceClient.searchPatients(query, SUGGESTION_LIMIT,
+                    new Request.Options(timeout, timeout, true));
+        } catch (Exception e) {
+            logger.error("Error searching patients: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+}
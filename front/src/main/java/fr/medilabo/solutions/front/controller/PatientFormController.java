@@ -13,8 +13,10 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import feign.FeignException;
 import fr.medilabo.solutions.front.client.GatewayServiceClient;
 import fr.medilabo.solutions.front.dto.PatientDto;
+import fr.medilabo.solutions.front.service.PatientListService;
 
 import jakarta.validation.Valid;
 
@@ -25,6 +27,8 @@ public class PatientFormController {
 
     @Autowired
     private GatewayServiceClient gatewayServiceClient;
+    @Autowired
+    private PatientListService patientListService;
     @Value("${app.gateway.url:http://localhost:8080}")
     private String gatewayUrl;
 
@@ -104,6 +108,7 @@ public class PatientFormController {
      * - Valide les données du patient et retourne à la vue du formulaire si la validation échoue
      * - Détermine s'il s'agit d'une création ou d'une mise à jour selon l'ID du patient
      * - Appelle la méthode appropriée du service gateway (création ou mise à jour)
+     * - Vide le cache de la liste des patients de la page d'accueil
      * - Ajoute des messages de succès/erreur aux attributs flash ou au modèle
      * - Enregistre les résultats de l'opération
      * - Redirige vers la page d'accueil en cas de succès ou retourne au formulaire en cas d'erreur
@@ -125,15 +130,23 @@ public class PatientFormController {
 
             if (isEdit) {
                 gatewayServiceClient.updatePatient((long) patientDto.getId(), patientDto);
+                patientListService.evictAll();
                 redirectAttributes.addFlashAttribute("success", "Patient mis à jour avec succès");
                 logger.info("Successfully updated patient {}", patientDto.getId());
             } else {
                 PatientDto savedPatient = gatewayServiceClient.createPatient(patientDto);
+                patientListService.evictAll();
                 redirectAttributes.addFlashAttribute("success", "Patient créé avec succès");
                 logger.info("Successfully created new patient with ID {}", savedPatient.getId());
             }
             return "redirect:" + gatewayUrl + "/front/home";
 
+        } catch (FeignException.Conflict e) {
+            logger.warn("Patient {} was modified concurrently: {}", patientDto.getId(), e.getMessage());
+            model.addAttribute("error", "Ce patient a été modifié entre-temps, veuillez recharger la fiche");
+            model.addAttribute("isEdit", true);
+            model.addAttribute("pageTitle", "Modifier Patient");
+            return "patientform";
         } catch (Exception e) {
             logger.error("Error saving patient: {}", e.getMessage());
             model.addAttribute("error", "Erreur lors de l'enregistrement du patient");
@@ -39,4 +39,10 @@ public class PatientDto {
     @Pattern(regexp = "^(\\+33|0)[1-9]([0-9]{8})$", message = "Le numéro de téléphone doit être au format français valide")
     private String phoneNumber;
 
+    /**
+     * Version du patient au chargement du formulaire, renvoyée à la mise à jour
+     * pour détecter une modification concurrente.
+     */
+    private Long version;
+
 }
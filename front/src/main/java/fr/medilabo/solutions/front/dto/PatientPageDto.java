@@ -16,6 +16,7 @@ public class PatientPageDto {
     private boolean last;
     private int numberOfElements;
     private boolean empty;
+    private String nextCursor;
 
     public boolean isFirst() {
         return first;
@@ -14,6 +14,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import fr.medilabo.solutions.front.accesslog.AccessLogFilter;
 import fr.medilabo.solutions.front.util.JwtUtil;
 
 import jakarta.servlet.FilterChain;
@@ -25,6 +26,7 @@ import jakarta.servlet.http.HttpServletResponse;
 /**
  * Filtre d'authentification JWT qui extrait et valide les jetons JWT des cookies.
  * Ce filtre s'exécute une fois par requête et gère l'authentification basée sur les jetons JWT.
+ * Chaque requête figurant déjà dans le journal d'accès, un jeton valide n'est tracé qu'en debug.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -70,7 +72,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
             if (jwtUtil.validateToken(jwt)) {
-                logger.info("JWT valide pour `{}`", username);
+                logger.debug("JWT valide pour `{}`", username);
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         username,
                         null,
@@ -78,6 +80,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                request.setAttribute(AccessLogFilter.USER_ATTR, username);
 
                 logger.debug("Authentification configurée pour `{}`", username);
             } else {
@@ -0,0 +1,207 @@
+package fr.medilabo.solutions.front.security;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identité de l'utilisateur appelant, capturée sur un thread pour être transmise à
+ * un autre : le JWT à relayer vers la passerelle et le {@link SecurityContext}.
+ *
+ * <p>
+ * Le cookie JWT n'est lisible que sur le thread de la requête servlet
+ * ({@link RequestContextHolder} est propre au thread). Une tâche lancée sur un
+ * exécuteur, un {@code CompletableFuture} ou un thread virtuel doit donc recevoir
+ * l'identité explicitement : {@link #capture()} la fige au moment de la soumission,
+ * puis {@link #wrap(Runnable)}, {@link #wrap(Callable)} ou {@link #call(Supplier)}
+ * la rattachent au thread qui exécute la tâche, le temps de la tâche seulement.
+ * {@link #propagating(Executor)} et {@link #taskDecorator()} le font pour toutes les
+ * tâches d'un exécuteur.
+ * </p>
+ *
+ * <p>
+ * Un contexte rattaché à un thread est toujours retiré à la fin de la tâche : un
+ * thread réutilisé par un pool ne garde jamais l'identité d'un autre utilisateur.
+ * </p>
+ */
+public final class JwtContext {
+
+    private static final String COOKIE_NAME = "jwt";
+
+    // Contexte rattaché au thread courant par run/call, hors du thread de la requête
+    private static final ThreadLocal<JwtContext> BOUND = new ThreadLocal<>();
+
+    private static final JwtContext EMPTY = new JwtContext(null, null);
+
+    private final String jwt;
+    private final SecurityContext securityContext;
+
+    private JwtContext(String jwt, SecurityContext securityContext) {
+        this.jwt = jwt;
+        this.securityContext = securityContext;
+    }
+
+    /**
+     * Capture l'identité du thread courant : le JWT du cookie de la requête en cours
+     * (ou du contexte déjà rattaché au thread) et le {@link SecurityContext}.
+     *
+     * @return le contexte capturé, éventuellement vide
+     */
+    public static JwtContext capture() {
+        String jwt = currentJwt();
+        SecurityContext security = SecurityContextHolder.getContext();
+        if (jwt == null && security.getAuthentication() == null) {
+            return EMPTY;
+        }
+        SecurityContext copy = SecurityContextHolder.createEmptyContext();
+        copy.setAuthentication(security.getAuthentication());
+        return new JwtContext(jwt, copy);
+    }
+
+    /**
+     * Renvoie le JWT à relayer depuis le thread courant : celui du cookie de la
+     * requête HTTP en cours, ou à défaut celui du contexte rattaché au thread.
+     *
+     * @return le JWT, ou {@code null} s'il n'y en a pas
+     */
+    public static String currentJwt() {
+        String jwt = requestJwt();
+        if (jwt != null) {
+            return jwt;
+        }
+        JwtContext bound = BOUND.get();
+        return bound == null ? null : bound.jwt;
+    }
+
+    /**
+     * Exécute une tâche sur le thread courant avec ce contexte rattaché, puis rétablit
+     * le contexte précédent.
+     *
+     * @param task la tâche
+     */
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Comme {@link #run(Runnable)}, pour une tâche qui renvoie un résultat.
+     *
+     * @param <T>  le type du résultat
+     * @param task la tâche
+     * @return le résultat de la tâche
+     */
+    public <T> T call(Supplier<T> task) {
+        try (Binding ignored = bind()) {
+            return task.get();
+        }
+    }
+
+    /**
+     * @param task la tâche à exécuter sur un autre thread
+     * @return la tâche, qui s'exécutera avec ce contexte rattaché
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> run(task);
+    }
+
+    /**
+     * @param <T>  le type du résultat
+     * @param task la tâche à exécuter sur un autre thread
+     * @return la tâche, qui s'exécutera avec ce contexte rattaché
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try (Binding ignored = bind()) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Enveloppe un exécuteur : chaque tâche soumise s'exécute avec le contexte du
+     * thread qui l'a soumise.
+     *
+     * @param executor l'exécuteur d'origine
+     * @return l'exécuteur qui transmet le contexte
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(capture().wrap(task));
+    }
+
+    /**
+     * @return un {@link TaskDecorator} qui transmet le contexte aux tâches des
+     *         exécuteurs Spring ({@code @Async}, {@code ThreadPoolTaskExecutor})
+     */
+    public static TaskDecorator taskDecorator() {
+        return task -> capture().wrap(task);
+    }
+
+    private Binding bind() {
+        Binding binding = new Binding(BOUND.get(),
+                securityContext == null ? null : SecurityContextHolder.getContext());
+        BOUND.set(this);
+        if (securityContext != null) {
+            SecurityContextHolder.setContext(securityContext);
+        }
+        return binding;
+    }
+
+    private static String requestJwt() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs)) {
+            return null;
+        }
+        HttpServletRequest request = attrs.getRequest();
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie c : request.getCookies()) {
+            if (COOKIE_NAME.equals(c.getName())) {
+                return c.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Contexte du thread avant {@link #bind()}, rétabli à la fin de la tâche.
+     */
+    private final class Binding implements AutoCloseable {
+
+        private final JwtContext previous;
+        private final SecurityContext previousSecurity;
+
+        private Binding(JwtContext previous, SecurityContext previousSecurity) {
+            this.previous = previous;
+            this.previousSecurity = previousSecurity;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+            if (securityContext == null) {
+                return;
+            }
+            if (previousSecurity.getAuthentication() == null) {
+                SecurityContextHolder.clearContext();
+            } else {
+                SecurityContextHolder.setContext(previousSecurity);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -114,4 +115,15 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
-}
\ No newline at end of file
+
+    /**
+     * Transmet l'identité de l'utilisateur ({@link JwtContext}) aux tâches des
+     * exécuteurs Spring, pour que leurs appels Feign restent authentifiés.
+     *
+     * @return TaskDecorator appliqué par Spring Boot à l'exécuteur des tâches
+     */
+    @Bean
+    public TaskDecorator jwtContextTaskDecorator() {
+        return JwtContext.taskDecorator();
+    }
+}
@@ -0,0 +1,109 @@
+package fr.medilabo.solutions.front.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import fr.medilabo.solutions.front.client.GatewayServiceClient;
+import fr.medilabo.solutions.front.dto.PatientPageDto;
+import fr.medilabo.solutions.front.security.JwtContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Pages de la liste des patients affichée sur la page d'accueil, gardées en cache.
+ *
+ * <p>
+ * Les pages sont les mêmes pour tous les utilisateurs authentifiés ; au plus
+ * {@code app.patient-list.maximum-size} pages (numéro, taille et tri) sont gardées.
+ * Après {@code app.patient-list.refresh-after}, la page en cache est encore renvoyée
+ * telle quelle, et un seul rafraîchissement part en arrière-plan. Si la passerelle
+ * ne répond pas, l'ancienne page reste servie jusqu'à
+ * {@code app.patient-list.max-stale}. Le cache est vidé à chaque création ou
+ * modification de patient par le front.
+ * </p>
+ *
+ * <p>
+ * Les succès, échecs et durées de chargement sont exposés par actuator sous le nom
+ * de cache {@code front.patients} ({@code cache.gets}, {@code cache.load.duration}...).
+ * </p>
+ */
+@Service
+public class PatientListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientListService.class);
+
+    private final GatewayServiceClient gatewayServiceClient;
+    private final LoadingCache<PageKey, PatientPageDto> cache;
+
+    public PatientListService(GatewayServiceClient gatewayServiceClient, MeterRegistry meterRegistry,
+            @Value("${app.patient-list.maximum-size:100}") long maximumSize,
+            @Value("${app.patient-list.refresh-after:30s}") String refreshAfter,
+            @Value("${app.patient-list.max-stale:1h}") String maxStale) {
+        this.gatewayServiceClient = gatewayServiceClient;
+        Duration refresh = DurationStyle.detectAndParse(refreshAfter);
+        Duration stale = DurationStyle.detectAndParse(maxStale);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refresh)
+                .expireAfterWrite(stale.compareTo(refresh) > 0 ? stale : refresh.plusSeconds(1))
+                .executor(jwtForwardingExecutor())
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "front.patients");
+    }
+
+    /**
+     * Renvoie une page de patients, depuis le cache si possible.
+     *
+     * @param page numéro de la page, à partir de 0
+     * @param size nombre de patients par page
+     * @param sort champ de tri suivi de la direction, par exemple {@code lastname,asc}
+     * @return la page de patients
+     * @throws RuntimeException si la page n'est pas en cache et que la passerelle
+     *                          ne répond pas
+     */
+    public PatientPageDto getPage(int page, int size, String sort) {
+        return cache.get(new PageKey(page, size, sort));
+    }
+
+    /**
+     * Vide le cache : le prochain affichage rechargera les pages.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+        logger.debug("Cache de la liste des patients vidé");
+    }
+
+    private PatientPageDto load(PageKey key) {
+        try {
+            PatientPageDto page = gatewayServiceClient.getPatientPage(key.page(), key.size(), key.sort());
+            logger.debug("Page {} des patients chargée : {} patients", key, page.getNumberOfElements());
+            return page;
+        } catch (RuntimeException e) {
+            logger.warn("Chargement de la page {} des patients impossible : {}", key, e.getMessage());
+            throw e;
+        }
+    }
+
+    private record PageKey(int page, int size, String sort) {
+    }
+
+    /**
+     * Le rafraîchissement tourne hors du thread de la requête : l'identité de la
+     * requête qui l'a déclenché est capturée avant de changer de thread.
+     */
+    private static Executor jwtForwardingExecutor() {
+        return JwtContext.propagating(ForkJoinPool.commonPool());
+    }
+
+}
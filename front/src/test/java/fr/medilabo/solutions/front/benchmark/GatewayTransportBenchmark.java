@@ -0,0 +1,204 @@
+package fr.medilabo.solutions.front.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Feign;
+import feign.Util;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import fr.medilabo.solutions.front.client.GatewayServiceClient;
+import fr.medilabo.solutions.front.config.FeignTransportConfig;
+import fr.medilabo.solutions.front.config.InstrumentedConnectionManager;
+import fr.medilabo.solutions.front.dto.PatientDto;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compare le débit et la latence (p50, p99) de {@link GatewayServiceClient} selon
+ * le transport de Feign : {@code HttpURLConnection} (transport d'origine), le pool
+ * Apache HttpClient 5 de {@link FeignTransportConfig} et le client HTTP/2 du JDK.
+ *
+ * Une fausse passerelle (serveur HTTP du JDK, HTTP/1.1 seulement) répond à
+ * {@code GET /api/patient/{id}} après {@code benchmark.latency-ms}. Elle compte les
+ * connexions TCP ouvertes par chaque transport : c'est ce que le keep-alive évite.
+ * {@code benchmark.clients} clients concurrents (threads virtuels) l'appellent
+ * pendant {@code benchmark.seconds}. Pour le pool, l'attente d'une connexion et la
+ * part des connexions réutilisées sont lues dans ses métriques.
+ *
+ * Non exécuté par {@code mvn test} (le nom ne correspond pas aux motifs de Surefire) :
+ * {@code mvn test -Dtest=GatewayTransportBenchmark [-Dbenchmark.clients=64]
+ * [-Dbenchmark.seconds=10] [-Dbenchmark.latency-ms=2]}.
+ */
+@DisplayName("Gateway Transport Benchmark")
+class GatewayTransportBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+    private static final int WARM_UP_SECONDS = Integer.getInteger("benchmark.warm-up-seconds", 3);
+    private static final int LATENCY_MS = Integer.getInteger("benchmark.latency-ms", 2);
+    private static final int MAX_PER_ROUTE = Integer.getInteger("benchmark.max-per-route", 50);
+
+    private static final byte[] PATIENT = """
+            {"id":1,"firstname":"Test","lastname":"TestNone","birthDate":"31/12/1966","gender":"F"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    // Connexions TCP vues par la fausse passerelle (adresse et port du client)
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @DisplayName("Throughput and p99: HttpURLConnection vs pooled HttpClient 5 vs JDK HTTP/2 client")
+    void compareTransports() throws Exception {
+        HttpServer gateway = startGateway();
+        String url = "http://localhost:" + gateway.getAddress().getPort();
+        try {
+            Result urlConnection = run("HttpURLConnection", new Client.Default(null, null), url);
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            FeignTransportConfig config = new FeignTransportConfig();
+            InstrumentedConnectionManager pool = config.gatewayConnectionManager(200, MAX_PER_ROUTE, "5m", "2s",
+                    registry);
+            Result pooled;
+            try (CloseableHttpClient httpClient = config.gatewayHttpClient(pool, "30s", "2s")) {
+                pooled = run("HttpClient 5 pool", new ApacheHttp5Client(httpClient), url);
+            }
+
+            Result http2 = run("JDK HTTP/2", new Http2Client(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()), url);
+
+            System.out.printf("%n%d clients, %d ms de latence de la passerelle%n", CLIENTS, LATENCY_MS);
+            System.out.printf("%-18s %10s %9s %9s %8s %12s%n", "transport", "req/sec", "p50 ms", "p99 ms", "errors",
+                    "connexions");
+            print(urlConnection);
+            print(pooled);
+            print(http2);
+
+            Timer wait = registry.get("front.gateway.pool.wait").timer();
+            double reused = registry.get("front.gateway.pool.leases").tag("reused", "true").counter().count();
+            double created = registry.get("front.gateway.pool.leases").tag("reused", "false").counter().count();
+            System.out.printf("%nPool : attente moyenne %.3f ms, max %.3f ms, %.1f %% de connexions réutilisées%n%n",
+                    wait.mean(TimeUnit.MILLISECONDS), wait.max(TimeUnit.MILLISECONDS),
+                    100 * reused / Math.max(1, reused + created));
+        } finally {
+            gateway.stop(0);
+        }
+    }
+
+    private HttpServer startGateway() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/patient/", exchange -> {
+            connections.add(exchange.getRemoteAddress());
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, PATIENT.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(PATIENT);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private Result run(String name, Client transport, String url) throws Exception {
+        GatewayServiceClient client = Feign.builder()
+                .contract(new SpringMvcContract())
+                .client(transport)
+                // Mêmes en-têtes que FrontFeignConfig et JwtCookieFeignInterceptor
+                .requestInterceptor(template -> template.header("X-Internal-Front", "true"))
+                .requestInterceptor(template -> template.header("Cookie", "jwt=benchmark"))
+                .decoder((response, type) -> {
+                    Util.toByteArray(response.body().asInputStream());
+                    return new PatientDto();
+                })
+                .target(GatewayServiceClient.class, url);
+
+        connections.clear();
+        load(client, WARM_UP_SECONDS);
+        return load(client, SECONDS).named(name, connections.size());
+    }
+
+    private static Result load(GatewayServiceClient client, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                long firstId = c;
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long id = firstId;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            client.getPatientById(id++);
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        List<long[]> all = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            all.add(future.get());
+        }
+        long[] latencies = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(null, latencies.length / (double) seconds, percentile(latencies, 0.50),
+                percentile(latencies, 0.99), errors.get(), 0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private static void print(Result result) {
+        System.out.printf("%-18s %10.0f %9.2f %9.2f %8d %12d%n", result.name(), result.throughput(), result.p50(),
+                result.p99(), result.errors(), result.connections());
+    }
+
+    private record Result(String name, double throughput, double p50, double p99, long errors, int connections) {
+
+        Result named(String name, int connections) {
+            return new Result(name, throughput, p50, p99, errors, connections);
+        }
+    }
+}
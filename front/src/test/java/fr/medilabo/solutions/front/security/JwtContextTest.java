@@ -0,0 +1,174 @@
+package fr.medilabo.solutions.front.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import feign.Feign;
+import feign.Response;
+import fr.medilabo.solutions.front.client.GatewayServiceClient;
+import fr.medilabo.solutions.front.config.JwtCookieFeignInterceptor;
+import fr.medilabo.solutions.front.dto.PatientDto;
+import jakarta.servlet.http.Cookie;
+
+@DisplayName("JWT Context Propagation Tests")
+class JwtContextTest {
+
+    // Cookie reçu par la fausse passerelle, par URL appelée
+    private final Map<String, String> receivedCookies = new ConcurrentHashMap<>();
+    private GatewayServiceClient gatewayServiceClient;
+    private ExecutorService virtualThreads;
+    private Executor propagating;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        gatewayServiceClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .requestInterceptor(new JwtCookieFeignInterceptor())
+                .client((request, options) -> {
+                    receivedCookies.put(request.url(),
+                            String.valueOf(request.headers().getOrDefault("Cookie", List.of()).stream()
+                                    .findFirst().orElse(null)));
+                    return Response.builder().status(200).request(request).headers(Map.of())
+                            .body("{}", StandardCharsets.UTF_8).build();
+                })
+                .decoder((response, type) -> new PatientDto())
+                .target(GatewayServiceClient.class, "http://gateway");
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        propagating = JwtContext.propagating(virtualThreads);
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        virtualThreads.shutdownNow();
+        pool.shutdownNow();
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should forward the caller's JWT on every parallel call")
+    void propagating_WithParallelCalls_ShouldForwardJwt() {
+        // Given
+        bindRequest("token-a");
+
+        // When
+        List<CompletableFuture<PatientDto>> calls = new ArrayList<>();
+        for (long id = 0; id < 50; id++) {
+            calls.add(getPatientAsync(id));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertEquals(50, receivedCookies.size());
+        receivedCookies.values().forEach(cookie -> assertEquals("jwt=token-a", cookie));
+    }
+
+    @Test
+    @DisplayName("Should keep each user's JWT when two requests fan out at the same time")
+    void propagating_WithConcurrentUsers_ShouldNotMixJwts() throws Exception {
+        // Given
+        ExecutorService requestThreads = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<?> userA = requestThreads.submit(() -> fanOut("token-a", 0));
+            Future<?> userB = requestThreads.submit(() -> fanOut("token-b", 1000));
+            userA.get(10, TimeUnit.SECONDS);
+            userB.get(10, TimeUnit.SECONDS);
+        } finally {
+            requestThreads.shutdownNow();
+        }
+
+        // Then
+        assertEquals(40, receivedCookies.size());
+        receivedCookies.forEach((url, cookie) -> {
+            long id = Long.parseLong(url.substring(url.lastIndexOf('/') + 1));
+            assertEquals(id < 1000 ? "jwt=token-a" : "jwt=token-b", cookie);
+        });
+    }
+
+    @Test
+    @DisplayName("Should lose the JWT on another thread without propagation")
+    void apply_WithoutPropagation_ShouldNotForwardJwt() throws Exception {
+        // Given
+        bindRequest("token-a");
+
+        // When
+        pool.submit(() -> gatewayServiceClient.getPatientById(1L)).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("null", receivedCookies.get("http://gateway/api/patient/1"));
+    }
+
+    @Test
+    @DisplayName("Should propagate the security context and clear it from pooled threads afterwards")
+    void propagating_ShouldBindThenClearContext() throws Exception {
+        // Given
+        bindRequest("token-a");
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        var executor = JwtContext.propagating(pool);
+
+        // When
+        CompletableFuture<Authentication> seen = CompletableFuture.supplyAsync(
+                () -> SecurityContextHolder.getContext().getAuthentication(), executor);
+        CompletableFuture<String> seenJwt = CompletableFuture.supplyAsync(JwtContext::currentJwt, executor);
+
+        // Then
+        assertEquals(authentication, seen.get(5, TimeUnit.SECONDS));
+        assertEquals("token-a", seenJwt.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            assertNull(pool.submit(JwtContext::currentJwt).get(5, TimeUnit.SECONDS));
+            assertNull(pool.submit(() -> SecurityContextHolder.getContext().getAuthentication())
+                    .get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void fanOut(String jwt, long firstId) {
+        bindRequest(jwt);
+        try {
+            List<CompletableFuture<PatientDto>> calls = new ArrayList<>();
+            for (long id = firstId; id < firstId + 20; id++) {
+                calls.add(getPatientAsync(id));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private CompletableFuture<PatientDto> getPatientAsync(long id) {
+        return CompletableFuture.supplyAsync(() -> gatewayServiceClient.getPatientById(id), propagating);
+    }
+
+    private static void bindRequest(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("jwt", jwt));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,59 @@
+package fr.medilabo.solutions.gateway.accesslog;
+
+import java.time.Instant;
+
+/**
+ * Événement du journal d'accès : une requête HTTP terminée.
+ *
+ * @param timestampMillis date de fin de la requête (epoch, en millisecondes)
+ * @param user            l'utilisateur authentifié, ou {@code null}
+ * @param method          la méthode HTTP
+ * @param path            le chemin, sans la chaîne de requête
+ * @param status          le statut HTTP renvoyé
+ * @param durationMicros  la durée de traitement, en microsecondes
+ * @param client          l'adresse du client, ou {@code null}
+ */
+public record AccessEvent(long timestampMillis, String user, String method, String path, int status,
+        long durationMicros, String client) {
+
+    /**
+     * Ajoute l'événement au format JSON, sur une ligne terminée par {@code \n}.
+     */
+    void appendJson(StringBuilder out, String service) {
+        out.append("{\"ts\":\"").append(Instant.ofEpochMilli(timestampMillis)).append('"');
+        appendField(out, "service", service);
+        appendField(out, "user", user);
+        appendField(out, "method", method);
+        appendField(out, "path", path);
+        out.append(",\"status\":").append(status);
+        out.append(",\"durationUs\":").append(durationMicros);
+        appendField(out, "client", client);
+        out.append("}\n");
+    }
+
+    private static void appendField(StringBuilder out, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+}
@@ -0,0 +1,56 @@
+package fr.medilabo.solutions.gateway.accesslog;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Ajoute chaque requête reçue par la gateway au journal d'accès, y compris celles
+ * refusées par la sécurité.
+ *
+ * <p>
+ * Placé avant la chaîne Spring Security, le filtre ne voit pas le contexte de
+ * sécurité : l'utilisateur est lu dans l'attribut {@link #USER_ATTR}, renseigné par
+ * {@code JwtValidationFilter} après validation du JWT.
+ * </p>
+ */
+public class AccessLogWebFilter implements WebFilter, Ordered {
+
+    /** Attribut de l'échange portant l'utilisateur authentifié. */
+    public static final String USER_ATTR = AccessLogWebFilter.class.getName() + ".user";
+
+    private final AccessLogWriter accessLog;
+
+    public AccessLogWebFilter(AccessLogWriter accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+            accessLog.log(new AccessEvent(
+                    System.currentTimeMillis(),
+                    exchange.getAttribute(USER_ATTR),
+                    exchange.getRequest().getMethod().name(),
+                    exchange.getRequest().getPath().value(),
+                    status == null ? 200 : status.value(),
+                    (System.nanoTime() - start) / 1_000,
+                    remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress()));
+        });
+    }
+
+}
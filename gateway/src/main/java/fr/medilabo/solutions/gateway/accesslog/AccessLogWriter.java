@@ -0,0 +1,245 @@
+package fr.medilabo.solutions.gateway.accesslog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Journal d'accès asynchrone : les requêtes ajoutent leurs événements à une
+ * {@link AccessLogRingBuffer} sans verrou, et un thread dédié les écrit par lots, en
+ * JSON (une ligne par requête), dans un fichier local via un {@link FileChannel}.
+ *
+ * <p>
+ * Aucune écriture disque n'a donc lieu sur le thread de la requête. Quand la file est
+ * pleine, la politique {@link FullPolicy#DROP} abandonne l'événement (compté dans
+ * {@code access.log.dropped}) et {@link FullPolicy#BLOCK} attend qu'une place se
+ * libère. Le fichier est renommé en {@code .1}, {@code .2}... au-delà de
+ * {@code maxFileSize}, en gardant {@code maxHistory} fichiers.
+ * </p>
+ *
+ * <p>
+ * Métriques : {@code access.log.pending} (événements en attente),
+ * {@code access.log.lag} (délai entre la fin d'une requête et l'écriture de son
+ * lot), {@code access.log.written} et {@code access.log.dropped}.
+ * </p>
+ *
+ * <p>
+ * Copiée à l'identique dans les services patient et front ; toute modification
+ * doit y être reportée.
+ * </p>
+ */
+public class AccessLogWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    /**
+     * Comportement quand la file est pleine.
+     */
+    public enum FullPolicy {
+        /** L'événement est abandonné, la requête n'attend jamais. */
+        DROP,
+        /** La requête attend qu'une place se libère. */
+        BLOCK
+    }
+
+    private final AccessLogRingBuffer<AccessEvent> buffer;
+    private final String service;
+    private final Path file;
+    private final int batchSize;
+    private final FullPolicy fullPolicy;
+    private final long maxFileSize;
+    private final int maxHistory;
+    private final long flushIntervalNanos;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer lag;
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // Utilisés par le seul thread d'écriture
+    private final StringBuilder lines = new StringBuilder(16 * 1024);
+    private FileChannel channel;
+    private long fileSize;
+    private long oldestInBatch;
+
+    public AccessLogWriter(String service, Path directory, int bufferSize, int batchSize, FullPolicy fullPolicy,
+            long maxFileSize, int maxHistory, Duration flushInterval, MeterRegistry meterRegistry)
+            throws IOException {
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.service = service;
+        this.file = directory.resolve(service + "-access.log");
+        this.batchSize = batchSize;
+        this.fullPolicy = fullPolicy;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        Files.createDirectories(directory);
+        openFile();
+
+        Gauge.builder("access.log.pending", buffer, AccessLogRingBuffer::size)
+                .description("Événements du journal d'accès en attente d'écriture")
+                .register(meterRegistry);
+        this.written = Counter.builder("access.log.written")
+                .description("Événements écrits dans le journal d'accès")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("access.log.dropped")
+                .description("Événements abandonnés, file pleine ou erreur d'écriture")
+                .register(meterRegistry);
+        this.lag = Timer.builder("access.log.lag")
+                .description("Délai entre la fin d'une requête et l'écriture de son événement")
+                .register(meterRegistry);
+
+        this.writerThread = Thread.ofPlatform()
+                .name("access-log-writer")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Ajoute un événement au journal, sans écriture sur le thread appelant.
+     *
+     * @return {@code false} si l'événement a été abandonné
+     */
+    public boolean log(AccessEvent event) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (fullPolicy == FullPolicy.DROP) {
+            dropped.increment();
+            return false;
+        }
+        LockSupport.unpark(writerThread);
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir écrit les événements en attente.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || buffer.size() > 0) {
+                if (writeBatch() == 0) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            }
+        } finally {
+            closeFile();
+        }
+    }
+
+    private int writeBatch() {
+        lines.setLength(0);
+        oldestInBatch = Long.MAX_VALUE;
+        int count = buffer.drain(event -> {
+            event.appendJson(lines, service);
+            oldestInBatch = Math.min(oldestInBatch, event.timestampMillis());
+        }, batchSize);
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            if (channel == null) {
+                openFile();
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(lines));
+            while (bytes.hasRemaining()) {
+                fileSize += channel.write(bytes);
+            }
+            written.increment(count);
+            lag.record(Math.max(0, System.currentTimeMillis() - oldestInBatch), TimeUnit.MILLISECONDS);
+            if (fileSize >= maxFileSize) {
+                rotate();
+            }
+        } catch (IOException e) {
+            log.warn("Écriture du journal d'accès {} impossible : {}", file, e.getMessage());
+            dropped.increment(count);
+            closeFile();
+        }
+        return count;
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        for (int i = maxHistory - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxHistory > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        openFile();
+    }
+
+    Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    private void openFile() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Fermeture du journal d'accès {} : {}", file, e.getMessage());
+        }
+        channel = null;
+    }
+
+}
@@ -0,0 +1,275 @@
+package fr.medilabo.solutions.gateway.batch;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.medilabo.solutions.gateway.accesslog.AccessEvent;
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWebFilter;
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exécute les sous-requêtes d'un lot en parallèle, au plus
+ * {@code gateway.batch.max-concurrency} à la fois, à travers les routes de la
+ * gateway.
+ *
+ * <p>
+ * Chaque sous-requête reçoit son propre échange, copié des en-têtes de la requête de
+ * lot déjà authentifiée, puis passe par le {@link DispatcherHandler} : elle suit la
+ * même route et les mêmes filtres de route (cache, limitation de débit, disjoncteur)
+ * qu'une requête directe. Seuls les chemins {@code /api/**} routés par la gateway
+ * sont acceptés ; une sous-requête invalide ou en échec n'interrompt pas les autres.
+ * </p>
+ *
+ * <p>
+ * Le {@link DispatcherHandler} est appelé directement : les sous-requêtes ne
+ * traversent pas la chaîne des {@code WebFilter}, ni {@code JwtValidationFilter}, ni
+ * {@link AccessLogWebFilter}. Le JWT n'est donc validé qu'une fois, pour la requête de
+ * lot ; chaque sous-requête réutilise tel quel son cookie et son en-tête d'identité
+ * interne signé, et le contexte de sécurité reste celui du lot. Pour la même raison,
+ * le dispatcher écrit lui-même une entrée du journal d'accès par sous-requête.
+ * </p>
+ */
+@Component
+public class BatchDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchDispatcher.class);
+
+    static final String BATCH_PATH = "/api/batch";
+
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT,
+            HttpMethod.PATCH, HttpMethod.DELETE);
+
+    // En-têtes de la réponse d'une sous-requête renvoyés au client
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER, "X-Cache");
+
+    private final Supplier<WebHandler> webHandler;
+    private final ObjectMapper objectMapper;
+    private final AccessLogWriter accessLog;
+    private final DistributionSummary batchSize;
+    private final int maxItems;
+    private final int maxConcurrency;
+
+    private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+    private final DefaultWebSessionManager sessionManager = new DefaultWebSessionManager();
+    private final AcceptHeaderLocaleContextResolver localeContextResolver = new AcceptHeaderLocaleContextResolver();
+
+    @Autowired
+    public BatchDispatcher(ObjectProvider<DispatcherHandler> dispatcherHandler, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry, ObjectProvider<AccessLogWriter> accessLog,
+            @Value("${gateway.batch.max-items:20}") int maxItems,
+            @Value("${gateway.batch.max-concurrency:4}") int maxConcurrency) {
+        // Résolu à l'appel : le DispatcherHandler recense lui-même les contrôleurs
+        this(dispatcherHandler::getObject, objectMapper, meterRegistry, accessLog.getIfAvailable(), maxItems,
+                maxConcurrency);
+    }
+
+    /**
+     * @param accessLog le journal d'accès, ou {@code null} s'il est désactivé
+     */
+    BatchDispatcher(Supplier<WebHandler> webHandler, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            AccessLogWriter accessLog, int maxItems, int maxConcurrency) {
+        this.webHandler = webHandler;
+        this.objectMapper = objectMapper;
+        this.accessLog = accessLog;
+        this.maxItems = maxItems;
+        this.maxConcurrency = maxConcurrency;
+        this.batchSize = DistributionSummary.builder("gateway.batch.size")
+                .description("Nombre de sous-requêtes par lot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute les sous-requêtes et renvoie leurs réponses dans le même ordre.
+     *
+     * @param exchange l'échange de la requête de lot, déjà authentifiée
+     * @param items    les sous-requêtes
+     * @return les réponses, une par sous-requête
+     * @throws ResponseStatusException 400 si le lot est vide ou dépasse
+     *                                 {@code gateway.batch.max-items}
+     */
+    public Mono<List<BatchResponseItem>> dispatch(ServerWebExchange exchange, List<BatchRequestItem> items) {
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Un lot contient entre 1 et " + maxItems + " sous-requêtes"));
+        }
+        batchSize.record(items.size());
+        return Flux.fromIterable(items)
+                .flatMapSequential(item -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return dispatch(exchange, item).doOnNext(response -> logAccess(exchange, item, response, start));
+                }), maxConcurrency)
+                .collectList();
+    }
+
+    private Mono<BatchResponseItem> dispatch(ServerWebExchange batch, BatchRequestItem item) {
+        HttpMethod method = item.method() == null ? null : HttpMethod.valueOf(item.method().toUpperCase());
+        if (method == null || !METHODS.contains(method)) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "Méthode non supportée : " + item.method()));
+        }
+        if (!isRoutedPath(item.path())) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, "Chemin non autorisé : " + item.path()));
+        }
+
+        byte[] body = item.body() == null || item.body().isNull() ? new byte[0] : toBytes(item.body());
+        ServerWebExchange exchange = subExchange(batch, method, item.path(), body);
+        CapturingServerHttpResponse response = (CapturingServerHttpResponse) exchange.getResponse();
+        return webHandler.get().handle(exchange)
+                .then(Mono.fromSupplier(() -> toResponse(response)))
+                .onErrorResume(e -> {
+                    log.warn("Échec de la sous-requête {} {}", method, item.path(), e);
+                    HttpStatus resolved = e instanceof ResponseStatusException rse
+                            ? HttpStatus.resolve(rse.getStatusCode().value())
+                            : null;
+                    HttpStatus status = resolved == null ? HttpStatus.BAD_GATEWAY : resolved;
+                    // Le détail de l'exception (hôte, adresse interne...) reste dans les logs
+                    return Mono.just(error(status, status.getReasonPhrase()));
+                });
+    }
+
+    private void logAccess(ServerWebExchange batch, BatchRequestItem item, BatchResponseItem response,
+            long start) {
+        if (accessLog == null) {
+            return;
+        }
+        String path = item.path();
+        InetSocketAddress remote = batch.getRequest().getRemoteAddress();
+        accessLog.log(new AccessEvent(
+                System.currentTimeMillis(),
+                batch.getAttribute(AccessLogWebFilter.USER_ATTR),
+                item.method() == null ? null : item.method().toUpperCase(),
+                path == null || path.indexOf('?') < 0 ? path : path.substring(0, path.indexOf('?')),
+                response.status(),
+                (System.nanoTime() - start) / 1_000,
+                remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress()));
+    }
+
+    /**
+     * Seuls les chemins {@code /api/**} correspondent à des routes de la gateway ; le lot
+     * lui-même est exclu pour éviter les lots imbriqués.
+     */
+    static boolean isRoutedPath(String path) {
+        if (path == null || !path.startsWith("/api/") || path.contains("..") || path.contains("#")) {
+            return false;
+        }
+        String pathOnly = path.contains("?") ? path.substring(0, path.indexOf('?')) : path;
+        return !pathOnly.equals(BATCH_PATH) && !pathOnly.startsWith(BATCH_PATH + "/");
+    }
+
+    private ServerWebExchange subExchange(ServerWebExchange batch, HttpMethod method, String path, byte[] body) {
+        ServerHttpRequest original = batch.getRequest();
+        int query = path.indexOf('?');
+        URI uri = UriComponentsBuilder.fromUri(original.getURI())
+                .replacePath(query < 0 ? path : path.substring(0, query))
+                .replaceQuery(query < 0 ? null : path.substring(query + 1))
+                .build(true)
+                .toUri();
+        ServerHttpRequest mutated = original.mutate()
+                .method(method)
+                .uri(uri)
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (body.length > 0) {
+                        headers.setContentType(MediaType.APPLICATION_JSON);
+                        headers.setContentLength(body.length);
+                    } else {
+                        headers.remove(HttpHeaders.CONTENT_TYPE);
+                    }
+                })
+                .build();
+        ServerHttpRequest request = new ServerHttpRequestDecorator(mutated) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body.length == 0
+                        ? Flux.empty()
+                        : Flux.defer(() -> Flux.just(batch.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+        CapturingServerHttpResponse response = new CapturingServerHttpResponse(batch.getResponse().bufferFactory());
+        return new DefaultServerWebExchange(request, response, sessionManager, codecConfigurer,
+                localeContextResolver);
+    }
+
+    private BatchResponseItem toResponse(CapturingServerHttpResponse response) {
+        int status = response.getStatusCode() == null ? HttpStatus.OK.value() : response.getStatusCode().value();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : RESPONSE_HEADERS) {
+            String value = response.getHeaders().getFirst(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return new BatchResponseItem(status, headers, toJson(response.getHeaders().getContentType(),
+                response.getBody()));
+    }
+
+    private JsonNode toJson(MediaType contentType, byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        if (contentType != null && (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                || contentType.getSubtype().endsWith("+json"))) {
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                log.debug("Corps JSON illisible, renvoyé comme texte : {}", e.getMessage());
+            }
+        }
+        return objectMapper.getNodeFactory().textNode(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private byte[] toBytes(JsonNode body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Corps de sous-requête invalide", e);
+        }
+    }
+
+    private BatchResponseItem error(HttpStatus status, String message) {
+        return new BatchResponseItem(status.value(), Map.of(),
+                objectMapper.getNodeFactory().objectNode().put("error", message));
+    }
+
+}
@@ -0,0 +1,10 @@
+package fr.medilabo.solutions.gateway.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Sous-requête d'un lot : méthode HTTP, chemin (requête comprise, ex.
+ * {@code /api/patient/3}) et corps JSON facultatif.
+ */
+public record BatchRequestItem(String method, String path, JsonNode body) {
+}
@@ -0,0 +1,17 @@
+package fr.medilabo.solutions.gateway.batch;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Réponse d'une sous-requête d'un lot, à la même position que la sous-requête.
+ *
+ * @param status  le statut HTTP de la sous-requête
+ * @param headers les en-têtes utiles au client ({@code Content-Type}, {@code ETag},
+ *                {@code Retry-After}...)
+ * @param body    le corps JSON, une chaîne pour un autre type de contenu, ou
+ *                {@code null}
+ */
+public record BatchResponseItem(int status, Map<String, String> headers, JsonNode body) {
+}
@@ -0,0 +1,64 @@
+package fr.medilabo.solutions.gateway.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWebFilter;
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Journal d'accès asynchrone de la gateway ({@code access-log.enabled=false} pour le
+ * désactiver).
+ *
+ * La politique {@code block} est refusée : l'attente aurait lieu sur un thread de la
+ * boucle d'événements Netty, qui sert aussi les autres requêtes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogConfig {
+
+    /**
+     * @param directory     le répertoire des fichiers du journal
+     * @param bufferSize    le nombre d'événements en attente au plus
+     * @param batchSize     le nombre d'événements écrits par lot
+     * @param fullPolicy    {@code drop} quand la file est pleine
+     * @param maxFileSize   la taille d'un fichier avant rotation (ex. {@code 10MB})
+     * @param maxHistory    le nombre d'anciens fichiers conservés
+     * @param flushInterval l'attente du thread d'écriture quand la file est vide
+     * @throws IllegalArgumentException si la politique est {@code block}
+     */
+    @Bean(destroyMethod = "close")
+    public AccessLogWriter accessLogWriter(
+            @Value("${spring.application.name}") String service,
+            @Value("${access-log.directory:logs}") String directory,
+            @Value("${access-log.buffer-size:8192}") int bufferSize,
+            @Value("${access-log.batch-size:256}") int batchSize,
+            @Value("${access-log.full-policy:drop}") String fullPolicy,
+            @Value("${access-log.max-file-size:10MB}") String maxFileSize,
+            @Value("${access-log.max-history:5}") int maxHistory,
+            @Value("${access-log.flush-interval:200ms}") String flushInterval,
+            MeterRegistry meterRegistry) throws IOException {
+        AccessLogWriter.FullPolicy policy = AccessLogWriter.FullPolicy.valueOf(fullPolicy.toUpperCase());
+        if (policy == AccessLogWriter.FullPolicy.BLOCK) {
+            throw new IllegalArgumentException(
+                    "access-log.full-policy=block bloquerait la boucle d'événements Netty, utiliser drop");
+        }
+        return new AccessLogWriter(service, Path.of(directory), bufferSize, batchSize, policy,
+                DataSize.parse(maxFileSize).toBytes(), maxHistory, DurationStyle.detectAndParse(flushInterval),
+                meterRegistry);
+    }
+
+    @Bean
+    public AccessLogWebFilter accessLogWebFilter(AccessLogWriter accessLogWriter) {
+        return new AccessLogWebFilter(accessLogWriter);
+    }
+
+}
@@ -0,0 +1,44 @@
+package fr.medilabo.solutions.gateway.config;
+
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métriques des disjoncteurs des routes de la gateway.
+ *
+ * <p>
+ * L'état courant, les appels et les taux d'échec sont publiés par Resilience4j
+ * ({@code resilience4j.circuitbreaker.*}) ; cette configuration ajoute le nombre de
+ * changements d'état, {@code gateway.circuitbreaker.transitions}, avec les tags
+ * {@code name}, {@code from} et {@code to}.
+ * </p>
+ */
+@Configuration
+public class CircuitBreakerMetricsConfig {
+
+    /**
+     * Compte chaque changement d'état des disjoncteurs.
+     *
+     * @param meterRegistry le registre des métriques actuator
+     * @return le customizer de la fabrique de disjoncteurs réactifs
+     */
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> circuitBreakerTransitionMetrics(
+            MeterRegistry meterRegistry) {
+        return factory -> factory.addCircuitBreakerCustomizer(circuitBreaker -> circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> Counter.builder("gateway.circuitbreaker.transitions")
+                        .description("Changements d'état des disjoncteurs")
+                        .tag("name", event.getCircuitBreakerName())
+                        .tag("from", event.getStateTransition().getFromState().name())
+                        .tag("to", event.getStateTransition().getToState().name())
+                        .register(meterRegistry)
+                        .increment()),
+                "patient");
+    }
+
+}
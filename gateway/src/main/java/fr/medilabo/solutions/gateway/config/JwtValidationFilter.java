@@ -1,6 +1,7 @@
 package fr.medilabo.solutions.gateway.config;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +19,11 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWebFilter;
+import fr.medilabo.solutions.gateway.util.InternalIdentitySigner;
 import fr.medilabo.solutions.gateway.util.JwtValidatorUtil;
+import fr.medilabo.solutions.gateway.util.JwtVerificationCache;
+import fr.medilabo.solutions.gateway.util.JwtVerificationCache.VerifiedToken;
 
 import reactor.core.publisher.Mono;
 
@@ -30,8 +35,15 @@ import reactor.core.publisher.Mono;
  * Ce filtre effectue les tâches suivantes :
  * <ul>
  * <li>Extrait le jeton JWT du cookie "jwt"</li>
- * <li>Valide le jeton en utilisant {@link JwtValidatorUtil}</li>
- * <li>Si valide, définit le contexte de sécurité avec un {@code ROLE_USER}</li>
+ * <li>Valide le jeton en utilisant {@link JwtValidatorUtil}, au travers de
+ * {@link JwtVerificationCache} : un jeton déjà vérifié n'est pas revérifié</li>
+ * <li>Supprime tout en-tête {@link InternalIdentitySigner#HEADER} envoyé par le
+ * client</li>
+ * <li>Si valide, définit le contexte de sécurité avec un {@code ROLE_USER} et
+ * transmet l'utilisateur aux services en aval dans un en-tête signé
+ * {@link InternalIdentitySigner#HEADER}</li>
+ * <li>Renseigne l'utilisateur pour le journal d'accès
+ * ({@link AccessLogWebFilter#USER_ATTR})</li>
  * <li>Si invalide, redirige l'utilisateur vers la page de connexion</li>
  * </ul>
  * </p>
@@ -50,7 +62,10 @@ public class JwtValidationFilter implements WebFilter {
     private String gatewayUrl;
 
     @Autowired
-    private JwtValidatorUtil jwtValidator;
+    private JwtVerificationCache jwtVerificationCache;
+
+    @Autowired
+    private InternalIdentitySigner identitySigner;
 
     /**
      * Logique principale du filtre qui traite les requêtes entrantes.
@@ -63,6 +78,14 @@ public class JwtValidationFilter implements WebFilter {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
 
+        // Seule la gateway peut affirmer une identité : une copie fournie par le client est ignorée
+        if (exchange.getRequest().getHeaders().containsKey(InternalIdentitySigner.HEADER)) {
+            log.warn("Client-supplied {} header removed", InternalIdentitySigner.HEADER);
+            exchange = exchange.mutate()
+                    .request(r -> r.headers(headers -> headers.remove(InternalIdentitySigner.HEADER)))
+                    .build();
+        }
+
         ServerHttpRequest req = exchange.getRequest();
         String path = req.getURI().getPath();
 
@@ -75,9 +98,11 @@ public class JwtValidationFilter implements WebFilter {
         String jwt = extractJwtFromCookies(req);
         if (jwt != null) {
 
-            if (jwtValidator.isValid(jwt) ) {
-                String username = jwtValidator.extractClaim(jwt, "sub");
-                log.info("JWT valide pour `{}`", username);
+            Optional<VerifiedToken> verified = jwtVerificationCache.verify(jwt);
+            if (verified.isPresent() && verified.get().subject() != null) {
+                String username = verified.get().subject();
+                log.debug("JWT valide pour `{}`", username);
+                exchange.getAttributes().put(AccessLogWebFilter.USER_ATTR, username);
                 var auth = new UsernamePasswordAuthenticationToken(
                         username,
                         null,
@@ -85,7 +110,12 @@ public class JwtValidationFilter implements WebFilter {
 
                 var ctx = new SecurityContextImpl(auth);
 
-                return chain.filter(exchange)
+                String identity = identitySigner.sign(username);
+                ServerWebExchange authenticated = exchange.mutate()
+                        .request(r -> r.headers(headers -> headers.set(InternalIdentitySigner.HEADER, identity)))
+                        .build();
+
+                return chain.filter(authenticated)
                         .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(ctx)));
             }
 
@@ -0,0 +1,16 @@
+package fr.medilabo.solutions.gateway.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+import fr.medilabo.solutions.gateway.loadbalancer.LatencyAwareLoadBalancer;
+import fr.medilabo.solutions.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+
+/**
+ * Remplace le tourniquet par défaut de Spring Cloud LoadBalancer par
+ * {@link LatencyAwareLoadBalancer} pour toutes les routes {@code lb://}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,53 @@
+package fr.medilabo.solutions.gateway.config;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuration de la limitation de débit de la gateway.
+ *
+ * <p>
+ * Les requêtes sont comptées par utilisateur, d'après le {@code sub} du JWT validé
+ * par {@link JwtValidationFilter}, ou à défaut par adresse IP du client.
+ * </p>
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Clé de limitation de débit : {@code user:<sub>} ou {@code ip:<adresse>}.
+     *
+     * @return le {@link KeyResolver} utilisé par le filtre {@code RequestRateLimiter}
+     */
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(authentication -> "user:" + authentication.getName())
+                .switchIfEmpty(Mono.fromSupplier(
+                        () -> "ip:" + clientAddress(exchange.getRequest().getRemoteAddress())));
+    }
+
+    /**
+     * @return l'adresse IP du client, le nom d'hôte reçu si l'adresse n'est pas
+     *         résolue, ou {@code unknown} si elle est absente
+     */
+    static String clientAddress(InetSocketAddress remoteAddress) {
+        if (remoteAddress == null) {
+            return "unknown";
+        }
+        InetAddress address = remoteAddress.getAddress();
+        return address != null ? address.getHostAddress() : remoteAddress.getHostString();
+    }
+
+}
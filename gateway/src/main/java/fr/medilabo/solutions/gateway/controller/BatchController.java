@@ -0,0 +1,40 @@
+package fr.medilabo.solutions.gateway.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import fr.medilabo.solutions.gateway.batch.BatchDispatcher;
+import fr.medilabo.solutions.gateway.batch.BatchRequestItem;
+import fr.medilabo.solutions.gateway.batch.BatchResponseItem;
+import reactor.core.publisher.Mono;
+
+/**
+ * Point d'entrée des lots : plusieurs appels aux routes de la gateway en un seul
+ * aller-retour.
+ *
+ * <p>
+ * Le corps est un tableau JSON de sous-requêtes
+ * {@code [{"method":"GET","path":"/api/patient/1"}, ...]} ; la réponse est un tableau
+ * de même taille avec, pour chacune, son statut, ses en-têtes utiles et son corps. La
+ * requête de lot est authentifiée une seule fois par {@code JwtValidationFilter}.
+ * </p>
+ */
+@RestController
+public class BatchController {
+
+    private final BatchDispatcher batchDispatcher;
+
+    public BatchController(BatchDispatcher batchDispatcher) {
+        this.batchDispatcher = batchDispatcher;
+    }
+
+    @PostMapping("/api/batch")
+    public Mono<List<BatchResponseItem>> batch(@RequestBody List<BatchRequestItem> items, ServerWebExchange exchange) {
+        return batchDispatcher.dispatch(exchange, items);
+    }
+
+}
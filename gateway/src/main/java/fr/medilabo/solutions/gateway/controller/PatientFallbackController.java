@@ -0,0 +1,75 @@
+package fr.medilabo.solutions.gateway.controller;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+
+import java.net.URI;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repli du disjoncteur de la route patient.
+ *
+ * <p>
+ * Quand le disjoncteur est ouvert, ou que l'appel échoue ou dépasse le délai, un GET
+ * reçoit la dernière réponse connue pour cet utilisateur et cette URL, marquée
+ * {@code X-Cache: STALE} et {@code Cache-Control: no-store} pour qu'elle ne soit
+ * remise dans aucun cache. Sans réponse connue, ou pour une écriture, le repli
+ * répond 503.
+ * </p>
+ */
+@RestController
+public class PatientFallbackController {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientFallbackController.class);
+
+    private final ResponseCacheStore responseCacheStore;
+
+    public PatientFallbackController(ResponseCacheStore responseCacheStore) {
+        this.responseCacheStore = responseCacheStore;
+    }
+
+    @RequestMapping("/fallback/patient")
+    public Mono<ResponseEntity<byte[]>> fallback(ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        Set<URI> originalUrls = exchange.getAttribute(GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        if (originalUrls == null || originalUrls.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        }
+        URI original = originalUrls.iterator().next();
+        log.warn("Repli pour {} {} : {}", exchange.getRequest().getMethod(), original.getPath(),
+                cause == null ? "disjoncteur" : cause.toString());
+
+        if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .flatMap(authentication -> Mono.justOrEmpty(
+                        responseCacheStore.lastKnown(authentication.getName(), original)))
+                .map(stale -> ResponseEntity.status(stale.status())
+                        .headers(headers -> {
+                            headers.putAll(stale.headers());
+                            headers.set("X-Cache", "STALE");
+                            headers.setCacheControl("no-store");
+                        })
+                        .body(stale.body()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+}
@@ -0,0 +1,95 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Copie en mémoire le corps d'une réponse, dans la limite d'une taille maximum,
+ * pour le cache des réponses et le regroupement des requêtes.
+ *
+ * <p>
+ * Tant que le corps reste sous la limite, ses morceaux sont gardés puis écrits d'un
+ * seul bloc à la fin, et la copie complète est transmise à {@code onCaptured}. Dès que
+ * la limite est dépassée, les morceaux gardés sont écrits et la suite du corps passe
+ * telle quelle, sans plus rien garder : une grande réponse ne coûte jamais plus que
+ * la limite en mémoire. Un {@code Content-Length} supérieur à la limite évite même
+ * toute copie.
+ * </p>
+ */
+final class BoundedBodyCapture {
+
+    private BoundedBodyCapture() {
+    }
+
+    /**
+     * @param headers    les en-têtes de la réponse
+     * @param body       le corps de la réponse
+     * @param limit      la taille maximum, en octets, d'une copie
+     * @param factory    la fabrique des buffers de la réponse
+     * @param onCaptured reçoit le corps complet s'il ne dépasse pas la limite
+     * @param onTooLarge appelé une fois si le corps dépasse la limite
+     * @return le corps à écrire, identique au corps reçu
+     */
+    static Flux<DataBuffer> capture(HttpHeaders headers, Publisher<? extends DataBuffer> body, long limit,
+            DataBufferFactory factory, Consumer<byte[]> onCaptured, Runnable onTooLarge) {
+        if (headers.getContentLength() > limit) {
+            onTooLarge.run();
+            return Flux.from(body);
+        }
+        return Flux.defer(() -> {
+            List<DataBuffer> pending = new ArrayList<>();
+            long[] size = { 0 };
+            boolean[] passThrough = { false };
+            return Flux.<DataBuffer>from(body)
+                    .concatMapIterable(buffer -> {
+                        if (passThrough[0]) {
+                            return List.of(buffer);
+                        }
+                        pending.add(buffer);
+                        size[0] += buffer.readableByteCount();
+                        if (size[0] <= limit) {
+                            return List.of();
+                        }
+                        passThrough[0] = true;
+                        onTooLarge.run();
+                        List<DataBuffer> flushed = new ArrayList<>(pending);
+                        pending.clear();
+                        return flushed;
+                    })
+                    .concatWith(Mono.defer(() -> {
+                        if (passThrough[0]) {
+                            return Mono.empty();
+                        }
+                        byte[] bytes = new byte[(int) size[0]];
+                        int offset = 0;
+                        for (DataBuffer buffer : pending) {
+                            int length = buffer.readableByteCount();
+                            buffer.read(bytes, offset, length);
+                            offset += length;
+                            DataBufferUtils.release(buffer);
+                        }
+                        pending.clear();
+                        onCaptured.accept(bytes);
+                        return Mono.just(factory.wrap(bytes));
+                    }))
+                    .doFinally(signal -> {
+                        // Annulation ou erreur : les morceaux gardés ne seront jamais écrits
+                        if (signal != SignalType.ON_COMPLETE) {
+                            pending.forEach(DataBufferUtils::release);
+                            pending.clear();
+                        }
+                    });
+        });
+    }
+}
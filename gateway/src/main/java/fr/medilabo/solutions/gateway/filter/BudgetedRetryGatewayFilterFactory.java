@@ -0,0 +1,197 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.retry.Retry;
+
+/**
+ * Filtre de route qui refait les requêtes sûres (GET, HEAD, OPTIONS) en échec, dans
+ * la limite de {@link RetryBudget}.
+ *
+ * <p>
+ * Utilisation : {@code spring.cloud.gateway.server.webflux.routes[n].filters[m]=BudgetedRetry},
+ * après {@code CircuitBreaker} pour que le disjoncteur ne voie que le résultat final.
+ * </p>
+ *
+ * <p>
+ * Une requête est refaite, avec un délai exponentiel à partir de {@code first-backoff},
+ * au plus {@code retries} fois, si le service répond par l'un des {@code statuses}
+ * (502, 503 et 504 par défaut) ou si l'appel échoue (connexion refusée ou coupée,
+ * délai de réponse dépassé), et seulement si le budget le permet. Les autres
+ * méthodes ne sont jamais refaites : une mise à jour peut avoir été appliquée
+ * avant l'échec. Une réponse déjà commencée n'est jamais refaite non plus.
+ * </p>
+ *
+ * <p>
+ * Métrique exposée : {@code gateway.retry} avec le tag {@code outcome} ({@code retried}
+ * ou {@code budget-exhausted}).
+ * </p>
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BudgetedRetryGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetedRetryGatewayFilterFactory.class);
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final RetryBudget retryBudget;
+    private final Counter retried;
+    private final Counter budgetExhausted;
+
+    public BudgetedRetryGatewayFilterFactory(RetryBudget retryBudget, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.retryBudget = retryBudget;
+        this.retried = Counter.builder("gateway.retry")
+                .tag("outcome", "retried")
+                .description("Nouvelles tentatives de requêtes en échec")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("gateway.retry")
+                .tag("outcome", "budget-exhausted")
+                .description("Nouvelles tentatives refusées faute de budget")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("retries");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            retryBudget.deposit();
+            if (!SAFE_METHODS.contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            return Mono.defer(() -> attempt(exchange, chain, config))
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                        if (signal.totalRetries() >= config.getRetries()
+                                || !isRetryable(exchange, signal.failure(), config)) {
+                            return Mono.error(signal.failure());
+                        }
+                        if (!retryBudget.tryWithdraw()) {
+                            budgetExhausted.increment();
+                            return Mono.error(signal.failure());
+                        }
+                        retried.increment();
+                        log.debug("Nouvelle tentative {} pour {} : {}", signal.totalRetries() + 1,
+                                exchange.getRequest().getURI().getPath(), signal.failure().toString());
+                        reset(exchange);
+                        return Mono.delay(config.getFirstBackoff().multipliedBy(1L << signal.totalRetries()));
+                    })))
+                    // Dernière tentative en échec de statut : la réponse du service est transmise telle quelle
+                    .onErrorResume(RetryableStatusException.class, e -> Mono.empty());
+        };
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        return chain.filter(exchange).then(Mono.defer(() -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && config.getStatuses().contains(status.value())
+                    && !exchange.getResponse().isCommitted()) {
+                return Mono.error(new RetryableStatusException(status));
+            }
+            return Mono.empty();
+        }));
+    }
+
+    private static boolean isRetryable(ServerWebExchange exchange, Throwable failure, Config config) {
+        // Réponse déjà commencée (coupure en cours de flux) : le client a reçu une partie du corps
+        if (exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        if (failure instanceof RetryableStatusException) {
+            return true;
+        }
+        if (failure instanceof ResponseStatusException statusException) {
+            return config.getStatuses().contains(statusException.getStatusCode().value());
+        }
+        return failure instanceof IOException || failure.getCause() instanceof IOException;
+    }
+
+    /**
+     * Libère la connexion de la tentative précédente et retire les en-têtes qu'elle a
+     * ajoutés à la réponse, pour que la suivante reparte de zéro.
+     */
+    private static void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+            exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        }
+        ServerWebExchangeUtils.reset(exchange);
+    }
+
+    /**
+     * Statut de réponse qui justifie une nouvelle tentative.
+     */
+    private static final class RetryableStatusException extends RuntimeException {
+
+        RetryableStatusException(HttpStatusCode status) {
+            super("Statut " + status.value(), null, false, false);
+        }
+    }
+
+    /**
+     * Nombre de tentatives, statuts concernés et délai avant la première.
+     */
+    public static class Config {
+
+        private int retries = 2;
+
+        private Set<Integer> statuses = Set.of(502, 503, 504);
+
+        private Duration firstBackoff = Duration.ofMillis(50);
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public Config setRetries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        public Set<Integer> getStatuses() {
+            return statuses;
+        }
+
+        public Config setStatuses(Set<Integer> statuses) {
+            this.statuses = statuses;
+            return this;
+        }
+
+        public Duration getFirstBackoff() {
+            return firstBackoff;
+        }
+
+        public Config setFirstBackoff(Duration firstBackoff) {
+            this.firstBackoff = firstBackoff;
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,209 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Stockage local des réponses GET mises en cache par {@link UserResponseCacheGatewayFilterFactory}.
+ *
+ * <p>
+ * Le cache est borné par la taille totale des corps ({@code gateway.response-cache.maximum-weight})
+ * et chaque entrée expire après {@code gateway.response-cache.ttl}. Chaque écriture
+ * sur les patients incrémente une génération : une réponse lue avant l'écriture
+ * mais reçue après n'est pas stockée.
+ * </p>
+ *
+ * <p>
+ * Chaque réponse est aussi gardée, plus longtemps ({@code gateway.response-cache.stale-ttl})
+ * et sans être invalidée par les écritures, comme dernière réponse connue : elle n'est
+ * servie que par le repli du disjoncteur, quand le service patient ne répond plus.
+ * </p>
+ *
+ * <p>
+ * Métriques exposées : {@code cache.*} (tag {@code cache=gateway.responses}) pour les
+ * hits, misses et évictions, et {@code gateway.response.cache.served.bytes} pour le
+ * volume servi depuis le cache.
+ * </p>
+ */
+@Component
+public class ResponseCacheStore {
+
+    static final String CACHE_NAME = "gateway.responses";
+    static final String STALE_CACHE_NAME = "gateway.responses.stale";
+
+    private final Cache<Key, CachedResponse> cache;
+    private final Cache<Key, CachedResponse> stale;
+    private final long maximumEntrySize;
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter servedBytes;
+
+    @Autowired
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+            @Value("${gateway.response-cache.maximum-weight:32MB}") String maximumWeight,
+            @Value("${gateway.response-cache.maximum-entry-size:1MB}") String maximumEntrySize,
+            @Value("${gateway.response-cache.ttl:30s}") String ttl,
+            @Value("${gateway.response-cache.stale-ttl:10m}") String staleTtl) {
+        this(meterRegistry, DataSize.parse(maximumWeight).toBytes(), DataSize.parse(maximumEntrySize).toBytes(),
+                DurationStyle.detectAndParse(ttl), DurationStyle.detectAndParse(staleTtl));
+    }
+
+    ResponseCacheStore(MeterRegistry meterRegistry, long maximumWeight, long maximumEntrySize, Duration ttl,
+            Duration staleTtl) {
+        this.maximumEntrySize = maximumEntrySize;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, CachedResponse response) -> response.body().length + key.path().length())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.stale = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, CachedResponse response) -> response.body().length + key.path().length())
+                .expireAfterWrite(staleTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, stale, STALE_CACHE_NAME);
+        this.servedBytes = Counter.builder("gateway.response.cache.served.bytes")
+                .description("Octets de réponse servis depuis le cache de la gateway")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param key la clé de la requête
+     * @return la réponse en cache, ou {@code null} si absente ou expirée
+     */
+    CachedResponse get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * @param user l'utilisateur authentifié
+     * @param uri  l'URI de la requête
+     * @return la dernière réponse connue, même invalidée depuis, ou vide
+     */
+    public Optional<CachedResponse> lastKnown(String user, URI uri) {
+        return Optional.ofNullable(stale.getIfPresent(Key.of(user, uri)));
+    }
+
+    /**
+     * @return la taille maximum, en octets, d'un corps mis en cache
+     */
+    long maximumEntrySize() {
+        return maximumEntrySize;
+    }
+
+    /**
+     * @return la génération courante, à relire avant de stocker une réponse
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stocke une réponse si aucune écriture n'a eu lieu depuis la lecture de
+     * {@code generationAtRequest} et si son corps ne dépasse pas la taille maximum
+     * d'une entrée.
+     */
+    void put(Key key, CachedResponse response, long generationAtRequest) {
+        if (response.body().length > maximumEntrySize) {
+            return;
+        }
+        stale.put(key, response);
+        cache.put(key, response);
+        // Une invalidation concurrente a pu passer entre le contrôle et l'écriture
+        if (generation.get() != generationAtRequest) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Invalide les réponses d'un patient modifié ou supprimé, ainsi que toutes les
+     * listes et recherches.
+     *
+     * @param patientId l'ID du patient modifié
+     */
+    void invalidatePatient(int patientId) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.patientId() == null || key.patientId() == patientId);
+    }
+
+    /**
+     * Invalide les listes et recherches, après la création d'un patient.
+     */
+    void invalidateCollections() {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.patientId() == null);
+    }
+
+    /**
+     * Invalide tout le cache, après une écriture qui peut toucher n'importe quel
+     * patient (import par lot).
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    void recordServed(int bytes) {
+        servedBytes.increment(bytes);
+    }
+
+    /**
+     * Clé d'une réponse : un utilisateur et une URL.
+     *
+     * @param user      le nom de l'utilisateur authentifié
+     * @param path      le chemin et la query string de la requête
+     * @param patientId l'ID du patient lu, ou {@code null} pour une liste ou une recherche
+     */
+    record Key(String user, String path, Integer patientId) {
+
+        // ID d'un patient en tête du chemin : /api/patient/42, /api/patient/42/...
+        private static final Pattern PATIENT_ID = Pattern.compile("^/api/patient/(\\d+)(?:/.*)?$");
+
+        /**
+         * @param user l'utilisateur authentifié
+         * @param uri  l'URI de la requête
+         * @return la clé de la réponse à cette requête pour cet utilisateur
+         */
+        static Key of(String user, URI uri) {
+            String query = uri.getRawQuery();
+            return new Key(user, uri.getRawPath() + (query == null ? "" : "?" + query), patientId(uri.getPath()));
+        }
+
+        /**
+         * @param path le chemin d'une requête sur la route patient
+         * @return l'ID du patient visé, ou {@code null} pour une liste, une recherche ou un lot
+         */
+        static Integer patientId(String path) {
+            Matcher matcher = PATIENT_ID.matcher(path);
+            return matcher.matches() ? Integer.valueOf(matcher.group(1)) : null;
+        }
+    }
+
+    /**
+     * Réponse en cache : statut, en-têtes et corps complet.
+     */
+    public record CachedResponse(int status, HttpHeaders headers, byte[] body) {
+    }
+
+}
@@ -0,0 +1,73 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import fr.medilabo.solutions.gateway.ratelimit.TokenBucket;
+
+/**
+ * Budget de nouvelles tentatives partagé par les requêtes de la gateway.
+ *
+ * <p>
+ * Chaque requête dépose {@code gateway.retry-budget.percent} % d'une tentative dans le
+ * budget, plafonné à {@code gateway.retry-budget.max-balance} ; chaque nouvelle
+ * tentative en retire une. Un plancher de {@code gateway.retry-budget.min-per-second}
+ * tentatives par seconde reste disponible quand le trafic est faible. Quand le
+ * service tombe, les nouvelles tentatives ne peuvent donc pas dépasser une fraction
+ * du trafic et ne l'amplifient pas.
+ * </p>
+ */
+@Component
+public class RetryBudget {
+
+    private static final long UNIT = 1_000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final TokenBucket floor;
+    private final AtomicLong balance = new AtomicLong();
+
+    @Autowired
+    public RetryBudget(@Value("${gateway.retry-budget.percent:20}") int percent,
+            @Value("${gateway.retry-budget.min-per-second:5}") int minPerSecond,
+            @Value("${gateway.retry-budget.max-balance:100}") int maxBalance) {
+        this(percent, minPerSecond, maxBalance, System::nanoTime);
+    }
+
+    RetryBudget(int percent, int minPerSecond, int maxBalance, LongSupplier nanoClock) {
+        this.deposit = UNIT * percent / 100;
+        this.maxBalance = UNIT * maxBalance;
+        this.floor = new TokenBucket(minPerSecond, minPerSecond, nanoClock);
+    }
+
+    /**
+     * Crédite le budget pour une requête reçue.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(maxBalance, current + amount));
+    }
+
+    /**
+     * Prend une nouvelle tentative dans le budget.
+     *
+     * @return {@code true} si la tentative est autorisée
+     */
+    public boolean tryWithdraw() {
+        if (floor.tryConsume(1).allowed()) {
+            return true;
+        }
+        long current = balance.get();
+        while (current >= UNIT) {
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,220 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore.CachedResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Filtre de route qui regroupe les GET authentifiés identiques et simultanés en un
+ * seul appel au service (single-flight).
+ *
+ * <p>
+ * Utilisation : {@code spring.cloud.gateway.server.webflux.routes[n].filters[1]=SingleFlight},
+ * après {@code UserResponseCache} pour que seuls les échecs de cache soient regroupés.
+ * </p>
+ *
+ * <p>
+ * La première requête d'un utilisateur pour une URL (chemin, query string et
+ * {@code Accept}) part vers le service ; celles qui arrivent pendant son exécution
+ * attendent sa réponse, au plus {@code gateway.single-flight.max-wait}, puis en
+ * reçoivent une copie. Si l'attente dépasse ce délai, ou si la réponse n'est pas
+ * partageable (statut autre que 200, flux NDJSON/SSE, {@code no-store}, corps de plus
+ * de {@code gateway.single-flight.maximum-size}), chacune fait son propre appel.
+ * </p>
+ *
+ * <p>
+ * Comme pour {@link UserResponseCacheGatewayFilterFactory}, une réponse n'est
+ * partagée qu'entre requêtes du même utilisateur. Une route dont les réponses ne
+ * dépendent pas de l'utilisateur peut regrouper celles de tous les utilisateurs
+ * authentifiés avec {@code SingleFlight=true} ({@link Config#isShareAcrossUsers()}).
+ * Les requêtes d'un client non authentifié ne sont jamais regroupées.
+ * </p>
+ *
+ * <p>
+ * Métriques exposées : {@code gateway.single-flight.upstream} (appels transmis au
+ * service), {@code gateway.single-flight.saved} (appels évités) et
+ * {@code gateway.single-flight.fallbacks} (attentes sans réponse partagée).
+ * </p>
+ */
+@Component
+public class SingleFlightGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<SingleFlightGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightGatewayFilterFactory.class);
+
+    private final ConcurrentHashMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+    private final long maximumSize;
+    private final Counter upstream;
+    private final Counter saved;
+    private final Counter fallbacks;
+
+    public SingleFlightGatewayFilterFactory(MeterRegistry meterRegistry,
+            @Value("${gateway.single-flight.max-wait:5s}") String maxWait,
+            @Value("${gateway.single-flight.maximum-size:1MB}") String maximumSize) {
+        super(Config.class);
+        this.maxWait = DurationStyle.detectAndParse(maxWait);
+        this.maximumSize = DataSize.parse(maximumSize).toBytes();
+        this.upstream = Counter.builder("gateway.single-flight.upstream")
+                .description("GET transmis au service par le regroupement de requêtes")
+                .register(meterRegistry);
+        this.saved = Counter.builder("gateway.single-flight.saved")
+                .description("GET servis par la réponse d'une requête identique simultanée")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("gateway.single-flight.fallbacks")
+                .description("GET qui ont renoncé à attendre une requête identique")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("shareAcrossUsers");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Doit décorer la réponse avant que NettyWriteResponseFilter ne l'écrive
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            return ReactiveSecurityContextHolder.getContext()
+                    .map(SecurityContext::getAuthentication)
+                    .filter(Authentication::isAuthenticated)
+                    .map(authentication -> Optional.of(authentication.getName()))
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(user -> user.isPresent()
+                            ? coalesce(exchange, chain, key(exchange.getRequest(),
+                                    config.isShareAcrossUsers() ? null : user.get()))
+                            : chain.filter(exchange));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+
+        if (leader != null) {
+            return leader.asMono()
+                    .timeout(maxWait)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorReturn(TimeoutException.class, Optional.empty())
+                    .flatMap(shared -> {
+                        if (shared.isEmpty()) {
+                            log.debug("Réponse non partagée pour {}, appel direct au service", key);
+                            fallbacks.increment();
+                            return chain.filter(exchange);
+                        }
+                        saved.increment();
+                        return write(exchange.getResponse(), shared.get());
+                    });
+        }
+
+        upstream.increment();
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (!UserResponseCacheGatewayFilterFactory.isCacheable(status, getHeaders())) {
+                    release(key, sink);
+                    return super.writeWith(body);
+                }
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(getHeaders());
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                headers.remove(UserResponseCacheGatewayFilterFactory.CACHE_HEADER);
+                return super.writeWith(BoundedBodyCapture.capture(getHeaders(), body, maximumSize, bufferFactory(),
+                        bytes -> {
+                            inFlight.remove(key, sink);
+                            sink.tryEmitValue(new CachedResponse(status.value(),
+                                    HttpHeaders.readOnlyHttpHeaders(headers), bytes));
+                        },
+                        () -> release(key, sink)));
+            }
+        };
+        return chain.filter(exchange.mutate().response(decorated).build())
+                .doFinally(signal -> release(key, sink));
+    }
+
+    /**
+     * Libère la clé et, si aucune réponse n'a été partagée, renvoie les requêtes en
+     * attente vers le service.
+     */
+    private void release(String key, Sinks.One<CachedResponse> sink) {
+        inFlight.remove(key, sink);
+        sink.tryEmitEmpty();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse shared) {
+        response.setStatusCode(HttpStatusCode.valueOf(shared.status()));
+        response.getHeaders().putAll(shared.headers());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    /**
+     * @param user l'utilisateur, ou {@code null} si la réponse est partagée entre utilisateurs
+     */
+    static String key(ServerHttpRequest request, String user) {
+        String query = request.getURI().getRawQuery();
+        return (user == null ? "*" : user.length() + ":" + user) + " " + request.getURI().getRawPath()
+                + (query == null ? "" : "?" + query)
+                + " " + String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Le délai d'attente et la taille maximum d'une réponse partagée sont globaux
+     * ({@code gateway.single-flight.*}).
+     */
+    public static class Config {
+
+        /**
+         * Regroupe les requêtes de tous les utilisateurs authentifiés, pour une route
+         * dont les réponses ne dépendent pas de l'utilisateur.
+         */
+        private boolean shareAcrossUsers = false;
+
+        public boolean isShareAcrossUsers() {
+            return shareAcrossUsers;
+        }
+
+        public Config setShareAcrossUsers(boolean shareAcrossUsers) {
+            this.shareAcrossUsers = shareAcrossUsers;
+            return this;
+        }
+    }
+
+}
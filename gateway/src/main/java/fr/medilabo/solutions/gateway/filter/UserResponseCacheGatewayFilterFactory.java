@@ -0,0 +1,191 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore.CachedResponse;
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore.Key;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtre de route qui met en cache les réponses aux GET, par utilisateur, dans
+ * {@link ResponseCacheStore}.
+ *
+ * <p>
+ * Utilisation : {@code spring.cloud.gateway.server.webflux.routes[n].filters[0]=UserResponseCache}.
+ * </p>
+ *
+ * <ul>
+ * <li>Seules les réponses 200 des GET authentifiés sont stockées, sous la clé
+ * (utilisateur, chemin et query string) : un utilisateur ne reçoit jamais la réponse
+ * d'un autre.</li>
+ * <li>Les réponses en flux (NDJSON, SSE) passent sans être mises en tampon, et une
+ * réponse plus grande que {@code gateway.response-cache.maximum-entry-size} n'est
+ * gardée en mémoire que jusqu'à cette taille, puis passe telle quelle
+ * ({@link BoundedBodyCapture}).</li>
+ * <li>Un POST, PUT ou DELETE qui passe par la route invalide, une fois sa réponse
+ * reçue, les réponses du patient concerné et toutes les listes ; une création
+ * n'invalide que les listes, un import par lot tout le cache.</li>
+ * <li>Un {@code If-None-Match} égal à l'ETag de la réponse en cache reçoit un 304.</li>
+ * </ul>
+ *
+ * <p>
+ * L'en-tête {@code X-Cache} ({@code HIT} ou {@code MISS}) indique si la réponse
+ * vient du cache.
+ * </p>
+ */
+@Component
+public class UserResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<UserResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(UserResponseCacheGatewayFilterFactory.class);
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    private static final String COLLECTION_PATH = "/api/patient";
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM);
+
+    private final ResponseCacheStore store;
+
+    public UserResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Doit décorer la réponse avant que NettyWriteResponseFilter ne l'écrive
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (HttpMethod.GET.equals(method)) {
+                return ReactiveSecurityContextHolder.getContext()
+                        .map(SecurityContext::getAuthentication)
+                        .filter(Authentication::isAuthenticated)
+                        .map(authentication -> Optional.of(authentication.getName()))
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(user -> user.isPresent()
+                                ? cachedGet(exchange, user.get(), chain::filter)
+                                : chain.filter(exchange));
+            }
+            if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method)
+                    || HttpMethod.DELETE.equals(method) || HttpMethod.PATCH.equals(method)) {
+                Runnable invalidation = invalidation(exchange.getRequest());
+                return chain.filter(exchange)
+                        .doFinally(signal -> invalidation.run());
+            }
+            return chain.filter(exchange);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> cachedGet(ServerWebExchange exchange, String user,
+            Function<ServerWebExchange, Mono<Void>> next) {
+        Key key = Key.of(user, exchange.getRequest().getURI());
+
+        CachedResponse cached = store.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+
+        long generation = store.generation();
+        ServerHttpResponse original = exchange.getResponse();
+        original.getHeaders().set(CACHE_HEADER, "MISS");
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (!isCacheable(status, getHeaders())) {
+                    return super.writeWith(body);
+                }
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(getHeaders());
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                headers.remove(CACHE_HEADER);
+                return super.writeWith(BoundedBodyCapture.capture(getHeaders(), body, store.maximumEntrySize(),
+                        bufferFactory(),
+                        bytes -> store.put(key, new CachedResponse(status.value(),
+                                HttpHeaders.readOnlyHttpHeaders(headers), bytes), generation),
+                        () -> log.debug("Réponse trop volumineuse pour le cache : {}", key.path())));
+            }
+        };
+        return next.apply(exchange.mutate().response(decorated).build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+
+        String etag = cached.headers().getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            log.debug("Réponse 304 depuis le cache pour {}", exchange.getRequest().getURI().getPath());
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        store.recordServed(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    static boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value()) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !cacheControl.contains("no-store");
+    }
+
+    /**
+     * Choisit les réponses à invalider pour une écriture : celles du patient visé,
+     * les listes seules pour une création, tout le cache sinon (import par lot).
+     */
+    private Runnable invalidation(ServerHttpRequest request) {
+        Integer patientId = Key.patientId(request.getURI().getPath());
+        if (patientId != null) {
+            return () -> store.invalidatePatient(patientId);
+        }
+        if (HttpMethod.POST.equals(request.getMethod()) && COLLECTION_PATH.equals(request.getURI().getPath())) {
+            return store::invalidateCollections;
+        }
+        return store::invalidateAll;
+    }
+
+    /**
+     * Aucune option : la taille et la durée de vie du cache sont globales
+     * ({@code gateway.response-cache.*}).
+     */
+    public static class Config {
+    }
+
+}
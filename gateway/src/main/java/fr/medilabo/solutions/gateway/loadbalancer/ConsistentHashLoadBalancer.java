@@ -0,0 +1,189 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Répartiteur de charge par hachage cohérent de l'identifiant patient : toutes les
+ * requêtes {@code /api/patient/{id}} d'un même patient vont à la même instance, dont
+ * le cache local reste ainsi efficace.
+ *
+ * <p>
+ * Chaque instance occupe {@code virtualNodes} positions sur un anneau ; l'ajout ou le
+ * retrait d'une instance ne déplace que les patients de ses positions. La charge est
+ * bornée : une instance qui a déjà plus de {@code loadFactor} fois la moyenne des
+ * requêtes en cours est sautée au profit de la suivante sur l'anneau, de même qu'une
+ * instance écartée ou qui a déjà échoué pour cette requête. Les autres requêtes (liste,
+ * création) sont confiées à {@code fallback}.
+ * </p>
+ */
+public class ConsistentHashLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistentHashLoadBalancer.class);
+
+    private static final Pattern PATIENT_ID = Pattern.compile("^/api/patient/(\\d+)(?:/.*)?$");
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry stats;
+    private final ReactorServiceInstanceLoadBalancer fallback;
+    private final int virtualNodes;
+    private final double loadFactor;
+
+    // Anneau reconstruit uniquement quand la liste des instances change
+    private volatile Ring ring = new Ring(Set.of(), new TreeMap<>());
+
+    public ConsistentHashLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+            InstanceStatsRegistry stats, ReactorServiceInstanceLoadBalancer fallback, int virtualNodes,
+            double loadFactor) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.stats = stats;
+        this.fallback = fallback;
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        String patientId = patientId(request);
+        if (patientId == null) {
+            return fallback.choose(request);
+        }
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        Set<String> failed = LatencyRecordingLifecycle.failedInstances(request);
+        return supplier.get(request).next().map(instances -> choose(patientId, instances, failed));
+    }
+
+    private Response<ServiceInstance> choose(String patientId, List<ServiceInstance> instances, Set<String> failed) {
+        if (instances.isEmpty()) {
+            log.warn("Aucune instance disponible pour le service {}", serviceId);
+            return new EmptyResponse();
+        }
+        Ring current = ring(instances);
+        Map<String, ServiceInstance> byKey = new HashMap<>();
+        int totalInFlight = 0;
+        for (ServiceInstance instance : instances) {
+            byKey.put(InstanceStatsRegistry.key(instance), instance);
+            totalInFlight += stats.inFlight(instance);
+        }
+        // Borne de charge : moyenne des requêtes en cours, nouvelle requête comprise
+        double capacity = Math.ceil(loadFactor * (totalInFlight + 1) / instances.size());
+
+        ServiceInstance firstAlive = null;
+        for (String key : current.walk(hash(patientId))) {
+            ServiceInstance instance = byKey.get(key);
+            if (instance == null || failed.contains(key) || stats.isEjected(instance)) {
+                continue;
+            }
+            if (stats.inFlight(instance) < capacity) {
+                return new DefaultResponse(instance);
+            }
+            if (firstAlive == null) {
+                firstAlive = instance;
+            }
+        }
+        if (firstAlive != null) {
+            return new DefaultResponse(firstAlive);
+        }
+        // Toutes les instances ont échoué ou sont écartées : on reprend le propriétaire du patient
+        return new DefaultResponse(byKey.get(current.walk(hash(patientId)).iterator().next()));
+    }
+
+    private Ring ring(List<ServiceInstance> instances) {
+        Set<String> members = new TreeSet<>();
+        for (ServiceInstance instance : instances) {
+            members.add(InstanceStatsRegistry.key(instance));
+        }
+        Ring current = ring;
+        if (current.members().equals(members)) {
+            return current;
+        }
+        NavigableMap<Long, String> positions = new TreeMap<>();
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                positions.put(hash(member + "#" + i), member);
+            }
+        }
+        log.info("Anneau de hachage du service {} reconstruit avec {} instance(s)", serviceId, members.size());
+        current = new Ring(members, positions);
+        ring = current;
+        return current;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static String patientId(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return null;
+        }
+        Matcher matcher = PATIENT_ID.matcher(context.getClientRequest().getUrl().getPath());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponible", e);
+        }
+    }
+
+    /**
+     * Anneau immuable : positions des nœuds virtuels et instances qui les occupent.
+     */
+    record Ring(Set<String> members, NavigableMap<Long, String> positions) {
+
+        /**
+         * @return les instances distinctes rencontrées en parcourant l'anneau depuis
+         *         {@code hash}, dans l'ordre
+         */
+        Collection<String> walk(long hash) {
+            Set<String> order = new LinkedHashSet<>();
+            for (String member : positions.tailMap(hash, true).values()) {
+                if (order.add(member) && order.size() == members.size()) {
+                    return order;
+                }
+            }
+            for (String member : positions.headMap(hash, false).values()) {
+                if (order.add(member) && order.size() == members.size()) {
+                    return order;
+                }
+            }
+            return order;
+        }
+    }
+
+}
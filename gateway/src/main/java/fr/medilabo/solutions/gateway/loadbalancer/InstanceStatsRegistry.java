@@ -0,0 +1,157 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statistiques observées par la gateway pour chaque instance de service : latence
+ * moyenne (EWMA), requêtes en cours et échecs consécutifs.
+ *
+ * <p>
+ * La moyenne est pondérée par le temps écoulé ({@code gateway.loadbalancer.decay}),
+ * mais une latence plus élevée que la moyenne la remplace aussitôt ; une instance
+ * lente qui ne reçoit plus de trafic voit son coût baisser et finit par être de
+ * nouveau essayée. Après {@code gateway.loadbalancer.ejection.consecutive-failures}
+ * échecs consécutifs, une instance est écartée pendant
+ * {@code gateway.loadbalancer.ejection.cooldown}.
+ * </p>
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    // Coût d'une instance sans mesure qui a déjà une requête en cours : elle n'en reçoit pas d'autre
+    private static final double PENALTY = Double.MAX_VALUE / 2;
+
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+    private final double decayNanos;
+    private final int ejectionThreshold;
+    private final long cooldownNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public InstanceStatsRegistry(@Value("${gateway.loadbalancer.decay:10s}") String decay,
+            @Value("${gateway.loadbalancer.ejection.consecutive-failures:5}") int ejectionThreshold,
+            @Value("${gateway.loadbalancer.ejection.cooldown:30s}") String cooldown) {
+        this(DurationStyle.detectAndParse(decay), ejectionThreshold, DurationStyle.detectAndParse(cooldown),
+                System::nanoTime);
+    }
+
+    InstanceStatsRegistry(Duration decay, int ejectionThreshold, Duration cooldown, LongSupplier nanoClock) {
+        this.decayNanos = decay.toNanos();
+        this.ejectionThreshold = ejectionThreshold;
+        this.cooldownNanos = cooldown.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Coût estimé d'une nouvelle requête sur l'instance : latence moyenne multipliée
+     * par le nombre de requêtes en cours plus une.
+     */
+    double cost(ServiceInstance instance) {
+        return stats(instance).cost(nanoClock.getAsLong(), decayNanos);
+    }
+
+    /**
+     * @return le nombre de requêtes en cours sur l'instance
+     */
+    int inFlight(ServiceInstance instance) {
+        return stats(instance).inFlight.get();
+    }
+
+    /**
+     * @return {@code true} si l'instance est écartée après trop d'échecs consécutifs
+     */
+    boolean isEjected(ServiceInstance instance) {
+        return stats(instance).ejectedUntil - nanoClock.getAsLong() > 0;
+    }
+
+    /**
+     * Enregistre le début d'une requête.
+     *
+     * @return la date de début, à repasser à {@link #complete}
+     */
+    public long start(ServiceInstance instance) {
+        stats(instance).inFlight.incrementAndGet();
+        return nanoClock.getAsLong();
+    }
+
+    /**
+     * Enregistre la fin d'une requête.
+     *
+     * @param startNanos la date renvoyée par {@link #start}
+     * @param failed     si la requête a échoué (erreur ou statut 5xx)
+     */
+    public void complete(ServiceInstance instance, long startNanos, boolean failed) {
+        long now = nanoClock.getAsLong();
+        Stats instanceStats = stats(instance);
+        instanceStats.inFlight.decrementAndGet();
+        instanceStats.record(now, now - startNanos, decayNanos);
+        if (!failed) {
+            instanceStats.consecutiveFailures.set(0);
+        } else if (instanceStats.consecutiveFailures.incrementAndGet() >= ejectionThreshold) {
+            instanceStats.ejectedUntil = now + cooldownNanos;
+            // À la fin de la mise à l'écart, un seul nouvel échec suffit pour l'écarter de nouveau
+            instanceStats.consecutiveFailures.set(ejectionThreshold - 1);
+        }
+    }
+
+    /**
+     * Enregistre la fin d'une requête abandonnée avant sa réponse, sans mesure de latence.
+     */
+    public void discard(ServiceInstance instance) {
+        stats(instance).inFlight.decrementAndGet();
+    }
+
+    /**
+     * Identifiant stable d'une instance, indépendant de l'objet renvoyé par Eureka.
+     */
+    static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private Stats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new Stats());
+    }
+
+    private static final class Stats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntil = Long.MIN_VALUE / 2;
+
+        // Protégés par le verrou de l'instance : mise à jour de quelques opérations
+        private double ewmaNanos;
+        private long lastUpdate;
+        private boolean measured;
+
+        synchronized void record(long now, long latencyNanos, double decayNanos) {
+            if (!measured || latencyNanos > ewmaNanos) {
+                // Moyenne « de pic » : un ralentissement est pris en compte immédiatement
+                ewmaNanos = latencyNanos;
+                measured = true;
+            } else {
+                double weight = Math.exp(-Math.max(0, now - lastUpdate) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastUpdate = now;
+        }
+
+        synchronized double cost(long now, double decayNanos) {
+            int pending = inFlight.get();
+            if (!measured) {
+                return pending == 0 ? 0 : PENALTY + pending;
+            }
+            double decayed = ewmaNanos * Math.exp(-Math.max(0, now - lastUpdate) / decayNanos);
+            return decayed * (pending + 1);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration des contextes de répartition de charge, un par service
+ * ({@code lb://patient}, {@code lb://front}...), déclarée par
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}.
+ *
+ * <p>
+ * Volontairement sans {@code @Configuration} : chargée dans chaque contexte enfant,
+ * elle ne doit pas être détectée par le scan du contexte principal.
+ * </p>
+ *
+ * <p>
+ * Les services listés dans {@code gateway.loadbalancer.consistent-hash.services}
+ * utilisent {@link ConsistentHashLoadBalancer} pour les requêtes d'un patient.
+ * </p>
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory, InstanceStatsRegistry stats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider = loadBalancerClientFactory
+                .getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        LatencyAwareLoadBalancer latencyAware = new LatencyAwareLoadBalancer(supplierProvider, serviceId, stats);
+
+        List<String> consistentHashServices = List.of(
+                environment.getProperty("gateway.loadbalancer.consistent-hash.services", String[].class,
+                        new String[0]));
+        if (!consistentHashServices.contains(serviceId)) {
+            return latencyAware;
+        }
+        return new ConsistentHashLoadBalancer(supplierProvider, serviceId, stats, latencyAware,
+                environment.getProperty("gateway.loadbalancer.consistent-hash.virtual-nodes", Integer.class, 160),
+                environment.getProperty("gateway.loadbalancer.consistent-hash.load-factor", Double.class, 1.25));
+    }
+
+}
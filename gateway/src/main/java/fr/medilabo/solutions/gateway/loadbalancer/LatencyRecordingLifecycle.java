@@ -0,0 +1,95 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alimente {@link InstanceStatsRegistry} avec le début et la fin de chaque requête
+ * routée par la gateway vers une instance choisie par le répartiteur de charge, et
+ * retient les instances en échec pour que {@link ConsistentHashLoadBalancer} passe à
+ * la suivante lors d'une nouvelle tentative.
+ */
+@Component
+public class LatencyRecordingLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    static final String FAILED_INSTANCES_ATTR = LatencyRecordingLifecycle.class.getName() + ".failedInstances";
+
+    private final InstanceStatsRegistry stats;
+
+    public LatencyRecordingLifecycle(InstanceStatsRegistry stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            request.getContext().setRequestStartTime(stats.start(lbResponse.getServer()));
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            stats.discard(instance);
+            return;
+        }
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null
+                        && response.getHttpStatus().is5xxServerError());
+        RequestDataContext context = completionContext.getLoadBalancerRequest().getContext();
+        stats.complete(instance, context.getRequestStartTime(), failed);
+        if (failed && context.getClientRequest() != null) {
+            // Conservé dans les attributs de l'échange : une nouvelle tentative choisira une autre instance
+            context.getClientRequest().getAttributes()
+                    .compute(FAILED_INSTANCES_ATTR, (name, value) -> withFailed(value, instance));
+        }
+    }
+
+    /**
+     * @return les instances ({@code hôte:port}) qui ont déjà échoué pour cette requête
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static Set<String> failedInstances(Request request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes() != null
+                && context.getClientRequest().getAttributes().get(FAILED_INSTANCES_ATTR) instanceof Set failed) {
+            return failed;
+        }
+        return Set.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> withFailed(Object value, ServiceInstance instance) {
+        Set<String> failed = value instanceof Set ? new HashSet<>((Set<String>) value) : new HashSet<>();
+        failed.add(InstanceStatsRegistry.key(instance));
+        return failed;
+    }
+
+}
@@ -0,0 +1,126 @@
+package fr.medilabo.solutions.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.validation.constraints.Min;
+import reactor.core.publisher.Mono;
+
+/**
+ * Limiteur de débit en mémoire pour le filtre {@code RequestRateLimiter} de la
+ * gateway, sans Redis : un {@link TokenBucket} par route et par clé (utilisateur
+ * ou adresse IP, voir {@code RateLimitConfig}).
+ *
+ * <p>
+ * Les valeurs par défaut viennent de {@code gateway.rate-limit.*} ; une route peut
+ * les remplacer par les arguments de son filtre
+ * ({@code args.in-memory-rate-limiter.replenish-rate}, {@code burst-capacity},
+ * {@code requested-tokens}). Les seaux inutilisés depuis
+ * {@code gateway.rate-limit.idle-expiry} sont supprimés.
+ * </p>
+ *
+ * <p>
+ * Une requête refusée reçoit un 429 avec {@code Retry-After} (en secondes) ; toutes
+ * reçoivent les en-têtes {@code X-RateLimit-*}.
+ * </p>
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final Config defaultConfig;
+    private final Duration idleExpiry;
+    private final Map<String, Cache<String, TokenBucket>> buckets = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(ConfigurationService configurationService,
+            @Value("${gateway.rate-limit.replenish-rate:20}") int replenishRate,
+            @Value("${gateway.rate-limit.burst-capacity:40}") int burstCapacity,
+            @Value("${gateway.rate-limit.idle-expiry:10m}") String idleExpiry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity);
+        this.idleExpiry = DurationStyle.detectAndParse(idleExpiry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        TokenBucket bucket = buckets.computeIfAbsent(routeId, route -> Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .<String, TokenBucket>build())
+                .get(id, key -> new TokenBucket(config.getReplenishRate(), config.getBurstCapacity(), System::nanoTime));
+
+        TokenBucket.Result result = bucket.tryConsume(config.getRequestedTokens());
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, Long.toString(result.remaining()));
+        headers.put(REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()));
+        if (!result.allowed()) {
+            long seconds = Math.max(1, (result.retryAfterNanos() + 999_999_999L) / 1_000_000_000L);
+            headers.put(RETRY_AFTER_HEADER, Long.toString(seconds));
+        }
+        return Mono.just(new Response(result.allowed(), headers));
+    }
+
+    /**
+     * Débit autorisé pour une route.
+     */
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate;
+
+        @Min(1)
+        private int burstCapacity;
+
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+    }
+
+}
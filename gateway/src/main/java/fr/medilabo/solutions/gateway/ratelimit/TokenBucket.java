@@ -0,0 +1,72 @@
+package fr.medilabo.solutions.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Seau à jetons sans verrou, pour un utilisateur et une route.
+ *
+ * <p>
+ * Implémenté sous la forme de l'algorithme GCRA (Generic Cell Rate Algorithm),
+ * équivalent au seau à jetons : au lieu d'un nombre de jetons et d'une date de
+ * remplissage, l'état est une seule date théorique d'arrivée ({@code tat}), mise à
+ * jour par compare-and-set sur un {@link AtomicLong}. Une décision coûte une lecture
+ * de l'horloge et un CAS, sans allocation.
+ * </p>
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param replenishRate jetons ajoutés par seconde
+     * @param burstCapacity nombre maximum de jetons, c'est-à-dire de requêtes acceptées d'un coup
+     * @param nanoClock     horloge en nanosecondes ({@code System::nanoTime})
+     */
+    public TokenBucket(int replenishRate, int burstCapacity, LongSupplier nanoClock) {
+        if (replenishRate < 1 || burstCapacity < 1) {
+            throw new IllegalArgumentException("replenishRate et burstCapacity doivent être positifs");
+        }
+        this.emissionInterval = NANOS_PER_SECOND / replenishRate;
+        this.burstTolerance = emissionInterval * burstCapacity;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Prend des jetons s'il y en a assez.
+     *
+     * @param tokens le nombre de jetons demandés
+     * @return le résultat : accepté avec les jetons restants, ou refusé avec le délai
+     *         avant que la demande puisse être acceptée
+     */
+    public Result tryConsume(int tokens) {
+        long increment = emissionInterval * tokens;
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, now) + increment;
+            long backlog = newTat - now;
+            if (backlog > burstTolerance) {
+                return new Result(false, 0, backlog - burstTolerance);
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return new Result(true, (burstTolerance - backlog) / emissionInterval, 0);
+            }
+        }
+    }
+
+    /**
+     * @param allowed        si les jetons ont été pris
+     * @param remaining      jetons restant après la demande
+     * @param retryAfterNanos délai avant qu'une demande identique soit acceptée, si refusée
+     */
+    public record Result(boolean allowed, long remaining, long retryAfterNanos) {
+    }
+
+}
@@ -0,0 +1,83 @@
+package fr.medilabo.solutions.gateway.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signe l'en-tête d'identité interne transmis aux services en aval une fois le
+ * cookie JWT validé par la gateway.
+ *
+ * <p>
+ * Format : {@code base64url(sujet).expiration.base64url(HMAC-SHA256(base64url(sujet).expiration))},
+ * l'expiration étant en secondes epoch. L'en-tête vit quelques secondes
+ * ({@code internal.identity.ttl}) : il ne sert qu'au trajet gateway → service, et
+ * le service le vérifie avec un seul HMAC au lieu d'analyser de nouveau le JWT.
+ * </p>
+ */
+@Component
+public class InternalIdentitySigner {
+
+    /** En-tête portant l'identité vérifiée par la gateway. */
+    public static final String HEADER = "X-Internal-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Mac prototype;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public InternalIdentitySigner(@Value("${internal.identity.secret}") String secret,
+            @Value("${internal.identity.ttl:30s}") String ttl) {
+        this(secret, DurationStyle.detectAndParse(ttl), Clock.systemUTC());
+    }
+
+    InternalIdentitySigner(String secret, Duration ttl, Clock clock) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Impossible d'initialiser " + ALGORITHM, e);
+        }
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Construit la valeur signée de l'en-tête pour un utilisateur.
+     *
+     * @param subject le nom d'utilisateur extrait du JWT
+     * @return la valeur de l'en-tête {@link #HEADER}
+     */
+    public String sign(String subject) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String payload = ENCODER.encodeToString(subject.getBytes(StandardCharsets.UTF_8)) + '.' + expiresAt;
+        byte[] signature = mac().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return payload + '.' + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Une instance de {@link Mac} n'est pas thread-safe : chaque signature utilise
+     * une copie de l'instance déjà initialisée avec la clé.
+     */
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " ne peut pas être copié", e);
+        }
+    }
+
+}
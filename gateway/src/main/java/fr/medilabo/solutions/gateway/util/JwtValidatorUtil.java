@@ -6,7 +6,9 @@ import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -19,13 +21,32 @@ import io.jsonwebtoken.security.Keys;
  * application.
  * 
  * The secret key is injected from application properties using the key
- * "jwt.secret".
+ * "jwt.secret". The key and the parser are built once: both are immutable and
+ * thread-safe.
  */
 @Component
 public class JwtValidatorUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtParser parser;
+
+    public JwtValidatorUtil(@Value("${jwt.secret}") String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiration of a JWT and returns its claims.
+     *
+     * @param token Complete JWT (header.payload.signature)
+     * @return the claims of the token
+     * @throws io.jsonwebtoken.JwtException if the JWT is invalid, expired or cannot be parsed
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
 
     /**
      * @param token Complete JWT (header.payload.signature)
@@ -33,13 +54,7 @@ public class JwtValidatorUtil {
      */
     public boolean isValid(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-
+            parseClaims(token);
             return true;
 
         } catch (JwtException | IllegalArgumentException e) {
@@ -57,12 +72,6 @@ public class JwtValidatorUtil {
      * @throws io.jsonwebtoken.JwtException if the JWT is invalid or cannot be parsed
      */
     public String extractClaim(String jwt, String string) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(jwt)
-                .getPayload()
-                .get(string, String.class);
+        return parseClaims(jwt).get(string, String.class);
     }
 }
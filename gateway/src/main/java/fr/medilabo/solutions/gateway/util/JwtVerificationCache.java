@@ -0,0 +1,154 @@
+package fr.medilabo.solutions.gateway.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache des jetons JWT déjà vérifiés par la gateway.
+ *
+ * <p>
+ * Un jeton vu une première fois est vérifié par {@link JwtValidatorUtil} (signature
+ * HMAC puis lecture du JSON) ; son sujet et ses claims sont alors gardés jusqu'à son
+ * expiration ({@code exp}), sans dépasser {@code gateway.jwt-cache.max-ttl}. Les
+ * requêtes suivantes de la même session ne font plus aucune opération
+ * cryptographique hormis le condensé SHA-256 qui sert de clé : le jeton lui-même
+ * n'est pas conservé en mémoire.
+ * </p>
+ *
+ * <p>
+ * Les jetons invalides ne sont pas mis en cache, pour qu'un client ne puisse pas le
+ * remplir avec des jetons forgés. Métriques exposées : {@code cache.*} (tag
+ * {@code cache=jwt.verified-tokens}), {@code gateway.jwt.cache.hit.ratio} et
+ * {@code gateway.jwt.verification} (latence des vérifications réellement faites).
+ * </p>
+ */
+@Component
+public class JwtVerificationCache {
+
+    static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final JwtValidatorUtil jwtValidator;
+    private final Cache<String, VerifiedToken> cache;
+    private final Timer verificationTimer;
+    private final Clock clock;
+
+    @Autowired
+    public JwtVerificationCache(JwtValidatorUtil jwtValidator, MeterRegistry meterRegistry,
+            @Value("${gateway.jwt-cache.maximum-size:10000}") long maximumSize,
+            @Value("${gateway.jwt-cache.max-ttl:15m}") String maxTtl) {
+        this(jwtValidator, meterRegistry, maximumSize, DurationStyle.detectAndParse(maxTtl), Clock.systemUTC(),
+                Ticker.systemTicker());
+    }
+
+    JwtVerificationCache(JwtValidatorUtil jwtValidator, MeterRegistry meterRegistry, long maximumSize,
+            Duration maxTtl, Clock clock, Ticker ticker) {
+        this.jwtValidator = jwtValidator;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) -> timeToLive(token, maxTtl)))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.verificationTimer = Timer.builder("gateway.jwt.verification")
+                .description("Vérifications de signature JWT faites hors cache")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("gateway.jwt.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Part des jetons JWT servis par le cache de vérification")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vérifie un jeton, en ne refaisant la vérification cryptographique que s'il
+     * n'est pas déjà en cache.
+     *
+     * @param jwt le jeton JWT complet (header.payload.signature)
+     * @return le jeton vérifié, ou vide s'il est invalide ou expiré
+     */
+    public Optional<VerifiedToken> verify(String jwt) {
+        String digest = digest(jwt);
+        VerifiedToken cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.expiresAt() == null || cached.expiresAt().isAfter(clock.instant())) {
+                return Optional.of(cached);
+            }
+            cache.invalidate(digest);
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = verificationTimer.record(() -> parse(jwt));
+        if (verified != null) {
+            cache.put(digest, verified);
+        }
+        return Optional.ofNullable(verified);
+    }
+
+    private VerifiedToken parse(String jwt) {
+        try {
+            Claims claims = jwtValidator.parseClaims(jwt);
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getSubject(), Map.copyOf(claims),
+                    expiration == null ? null : expiration.toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Duration timeToLive(VerifiedToken token, Duration maxTtl) {
+        if (token.expiresAt() == null) {
+            return maxTtl;
+        }
+        Duration remaining = Duration.between(clock.instant(), token.expiresAt());
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+    }
+
+    private static String digest(String jwt) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Jeton dont la signature a été vérifiée.
+     *
+     * @param subject   le sujet ({@code sub}), c'est-à-dire le nom d'utilisateur
+     * @param claims    toutes les claims du jeton
+     * @param expiresAt la date d'expiration ({@code exp}), ou {@code null} si absente
+     */
+    public record VerifiedToken(String subject, Map<String, Object> claims, Instant expiresAt) {
+    }
+
+}
@@ -0,0 +1,83 @@
+package fr.medilabo.solutions.gateway.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Access Log Ring Buffer Tests")
+class AccessLogRingBufferTest {
+
+    @Test
+    @DisplayName("Devrait refuser les éléments quand il est plein, puis les accepter une fois vidé")
+    void offer_WhenFull_ShouldReturnFalse() {
+        // Given
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // When & Then
+        assertFalse(buffer.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertEquals(List.of(0, 1), drained);
+        assertTrue(buffer.offer(4));
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Devrait arrondir la capacité à la puissance de deux supérieure")
+    void constructor_ShouldRoundCapacity() {
+        assertEquals(8, new AccessLogRingBuffer<>(5).capacity());
+        assertEquals(8192, new AccessLogRingBuffer<>(8192).capacity());
+    }
+
+    @Test
+    @DisplayName("Devrait délivrer chaque élément une seule fois avec des producteurs concurrents")
+    void offer_WithConcurrentProducers_ShouldNotLoseElements() throws Exception {
+        // Given
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drain(element -> assertTrue(received.add(element), "doublon : " + element), 32);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, buffer.size());
+    }
+
+}
@@ -0,0 +1,84 @@
+package fr.medilabo.solutions.gateway.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Access Log Writer Tests")
+class AccessLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Devrait écrire chaque événement sur une ligne JSON une fois fermé")
+    void log_ShouldWriteJsonLines() throws IOException {
+        // Given
+        AccessLogWriter writer = new AccessLogWriter("gateway", directory, 1024, 64,
+                AccessLogWriter.FullPolicy.BLOCK, 10_000_000, 2, Duration.ofMillis(10), meterRegistry);
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(writer.log(new AccessEvent(1_700_000_000_000L, "user\"" + i, "GET", "/api/patient/" + i,
+                    200, 1234, "127.0.0.1")));
+        }
+        writer.close();
+
+        // Then
+        List<String> lines = Files.readAllLines(writer.file());
+        assertEquals(5000, lines.size());
+        assertEquals("{\"ts\":\"2023-11-14T22:13:20Z\",\"service\":\"gateway\",\"user\":\"user\\\"0\","
+                + "\"method\":\"GET\",\"path\":\"/api/patient/0\",\"status\":200,\"durationUs\":1234,"
+                + "\"client\":\"127.0.0.1\"}", lines.get(0));
+        assertEquals(5000, meterRegistry.get("access.log.written").counter().count());
+        assertEquals(0, meterRegistry.get("access.log.dropped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Devrait faire tourner le fichier et garder au plus max-history anciens fichiers")
+    void log_WhenFileTooLarge_ShouldRotate() throws IOException {
+        // Given
+        AccessLogWriter writer = new AccessLogWriter("gateway", directory, 1024, 16,
+                AccessLogWriter.FullPolicy.BLOCK, 2_000, 2, Duration.ofMillis(10), meterRegistry);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            writer.log(new AccessEvent(System.currentTimeMillis(), "user", "GET", "/api/patient/" + i, 200, 10,
+                    null));
+        }
+        writer.close();
+
+        // Then
+        assertTrue(Files.exists(writer.rotated(1)));
+        assertTrue(Files.exists(writer.rotated(2)));
+        assertTrue(Files.notExists(writer.rotated(3)));
+        assertTrue(Files.size(writer.rotated(1)) >= 2_000);
+    }
+
+    @Test
+    @DisplayName("Devrait compter les événements perdus après la fermeture")
+    void log_AfterClose_ShouldDrop() throws IOException {
+        // Given
+        AccessLogWriter writer = new AccessLogWriter("gateway", directory, 16, 16, AccessLogWriter.FullPolicy.DROP,
+                10_000, 1, Duration.ofMillis(10), meterRegistry);
+        writer.close();
+
+        // When & Then
+        assertTrue(!writer.log(new AccessEvent(0, null, "GET", "/", 200, 0, null)));
+        assertEquals(1, meterRegistry.get("access.log.dropped").counter().count());
+    }
+
+}
@@ -0,0 +1,197 @@
+package fr.medilabo.solutions.gateway.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWebFilter;
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Batch Dispatcher Tests")
+class BatchDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    // Route simulée : renvoie le chemin et la méthode reçus, 404 pour /api/patient/404,
+    // une erreur interne pour /api/patient/boom
+    private final WebHandler routes = exchange -> {
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        String path = exchange.getRequest().getURI().getPath();
+        return Mono.delay(Duration.ofMillis(20))
+                .then(exchange.getRequest().getBody().collectList())
+                .flatMap(buffers -> {
+                    if (path.endsWith("/boom")) {
+                        return Mono.error(new IllegalStateException("Connection refused: patient/10.0.0.3:8081"));
+                    }
+                    if (path.endsWith("/404")) {
+                        exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+                        return exchange.getResponse().setComplete();
+                    }
+                    String received = buffers.isEmpty() ? "" : buffers.get(0).toString(StandardCharsets.UTF_8);
+                    String json = "{\"method\":\"" + exchange.getRequest().getMethod() + "\",\"path\":\"" + path
+                            + "\",\"received\":" + (received.isEmpty() ? "null" : received) + "}";
+                    exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return exchange.getResponse().writeWith(Mono.just(
+                            exchange.getResponse().bufferFactory().wrap(json.getBytes(StandardCharsets.UTF_8))));
+                })
+                // Avant la fin de la sous-requête : doFinally ne passerait qu'après que
+                // flatMapSequential a déjà lancé la suivante
+                .doOnTerminate(running::decrementAndGet)
+                .doOnCancel(running::decrementAndGet);
+    };
+
+    private final BatchDispatcher dispatcher = new BatchDispatcher(() -> routes, objectMapper,
+            new SimpleMeterRegistry(), null, 20, 4);
+
+    private final ServerWebExchange batch = MockServerWebExchange
+            .from(MockServerHttpRequest.post("http://localhost:8080/api/batch"));
+
+    @Test
+    @DisplayName("Devrait renvoyer une réponse par sous-requête, dans l'ordre, avec son propre statut")
+    void dispatch_ShouldKeepOrderAndPerItemStatus() throws Exception {
+        // Given
+        List<BatchRequestItem> items = List.of(
+                new BatchRequestItem("GET", "/api/patient/1", null),
+                new BatchRequestItem("GET", "/api/patient/404", null),
+                new BatchRequestItem("PUT", "/api/patient/2", objectMapper.readTree("{\"nom\":\"Test\"}")),
+                new BatchRequestItem("GET", "/actuator/health", null));
+
+        // When & Then
+        StepVerifier.create(dispatcher.dispatch(batch, items))
+                .assertNext(responses -> {
+                    assertEquals(4, responses.size());
+                    assertEquals(200, responses.get(0).status());
+                    assertEquals("/api/patient/1", responses.get(0).body().get("path").asText());
+                    assertEquals(404, responses.get(1).status());
+                    assertEquals("PUT", responses.get(2).body().get("method").asText());
+                    assertEquals("Test", responses.get(2).body().get("received").get("nom").asText());
+                    assertEquals(400, responses.get(3).status());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter les sous-requêtes en parallèle sans dépasser la limite de concurrence")
+    void dispatch_ShouldRespectConcurrencyCap() {
+        // Given
+        List<BatchRequestItem> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            items.add(new BatchRequestItem("GET", "/api/patient/" + i, null));
+        }
+
+        // When & Then
+        StepVerifier.create(dispatcher.dispatch(batch, items))
+                .assertNext(responses -> assertEquals(12, responses.size()))
+                .verifyComplete();
+        assertTrue(maxRunning.get() <= 4, maxRunning.get() + " sous-requêtes simultanées");
+        assertTrue(maxRunning.get() > 1, "les sous-requêtes doivent s'exécuter en parallèle");
+    }
+
+    @Test
+    @DisplayName("Devrait renvoyer un message générique sans le détail de l'exception")
+    void dispatch_WithFailingRoute_ShouldNotLeakExceptionMessage() {
+        // Given
+        List<BatchRequestItem> items = List.of(new BatchRequestItem("GET", "/api/patient/boom", null));
+
+        // When & Then
+        StepVerifier.create(dispatcher.dispatch(batch, items))
+                .assertNext(responses -> {
+                    assertEquals(502, responses.get(0).status());
+                    assertEquals("Bad Gateway", responses.get(0).body().get("error").asText());
+                    assertFalse(responses.get(0).body().toString().contains("10.0.0.3"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Devrait écrire une entrée du journal d'accès par sous-requête")
+    void dispatch_ShouldLogEachSubRequest(@TempDir Path directory) throws IOException {
+        // Given
+        AccessLogWriter accessLog = new AccessLogWriter("gateway", directory, 64, 16,
+                AccessLogWriter.FullPolicy.BLOCK, 1_000_000, 1, Duration.ofMillis(10), new SimpleMeterRegistry());
+        BatchDispatcher logging = new BatchDispatcher(() -> routes, objectMapper, new SimpleMeterRegistry(),
+                accessLog, 20, 4);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("http://localhost:8080/api/batch")
+                .remoteAddress(new InetSocketAddress("127.0.0.1", 54321)));
+        exchange.getAttributes().put(AccessLogWebFilter.USER_ATTR, "alice");
+        List<BatchRequestItem> items = List.of(
+                new BatchRequestItem("get", "/api/patient/1?fields=nom", null),
+                new BatchRequestItem("GET", "/api/patient/404", null),
+                new BatchRequestItem("GET", "/actuator/health", null));
+
+        // When
+        logging.dispatch(exchange, items).block(Duration.ofSeconds(5));
+        accessLog.close();
+
+        // Then
+        List<String> lines = Files.readAllLines(directory.resolve("gateway-access.log"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.contains("\"user\":\"alice\"")
+                && line.contains("\"client\":\"127.0.0.1\"")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"method\":\"GET\",\"path\":\"/api/patient/1\","
+                + "\"status\":200")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"path\":\"/api/patient/404\",\"status\":404")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"path\":\"/actuator/health\",\"status\":400")));
+    }
+
+    @Test
+    @DisplayName("Devrait refuser un lot vide ou trop grand")
+    void dispatch_WithTooManyItems_ShouldFail() {
+        // Given
+        List<BatchRequestItem> items = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            items.add(new BatchRequestItem("GET", "/api/patient/" + i, null));
+        }
+
+        // When & Then
+        StepVerifier.create(dispatcher.dispatch(batch, items))
+                .expectError(ResponseStatusException.class)
+                .verify();
+        StepVerifier.create(dispatcher.dispatch(batch, List.of()))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Devrait n'accepter que les routes de la gateway, jamais le lot lui-même")
+    void isRoutedPath_ShouldRejectNonApiAndNestedBatch() {
+        assertTrue(BatchDispatcher.isRoutedPath("/api/patient/1?x=1"));
+        assertFalse(BatchDispatcher.isRoutedPath("/api/batch"));
+        assertFalse(BatchDispatcher.isRoutedPath("/api/batch?x=1"));
+        assertFalse(BatchDispatcher.isRoutedPath("/api/../actuator/env"));
+        assertFalse(BatchDispatcher.isRoutedPath("/front/home"));
+        assertFalse(BatchDispatcher.isRoutedPath(null));
+    }
+
+}
@@ -0,0 +1,41 @@
+package fr.medilabo.solutions.gateway.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.medilabo.solutions.gateway.accesslog.AccessEvent;
+import fr.medilabo.solutions.gateway.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Access Log Config Tests")
+class AccessLogConfigTest {
+
+    @TempDir
+    Path directory;
+
+    private AccessLogWriter writer(String fullPolicy) throws Exception {
+        return new AccessLogConfig().accessLogWriter("gateway", directory.toString(), 16, 4, fullPolicy,
+                "1MB", 1, "10ms", new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Devrait refuser la politique block, qui bloquerait la boucle d'événements")
+    void accessLogWriter_WithBlockPolicy_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> writer("block"));
+    }
+
+    @Test
+    @DisplayName("Devrait accepter la politique drop")
+    void accessLogWriter_WithDropPolicy_ShouldLog() throws Exception {
+        try (AccessLogWriter writer = writer("drop")) {
+            assertTrue(writer.log(new AccessEvent(1_700_000_000_000L, "user", "GET", "/", 200, 10, "-")));
+        }
+    }
+
+}
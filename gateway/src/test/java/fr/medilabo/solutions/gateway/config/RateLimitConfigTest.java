@@ -0,0 +1,58 @@
+package fr.medilabo.solutions.gateway.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+@DisplayName("Rate Limit Key Resolver Tests")
+class RateLimitConfigTest {
+
+    private final KeyResolver keyResolver = new RateLimitConfig().userKeyResolver();
+
+    private String resolve(MockServerHttpRequest request) {
+        return keyResolver.resolve(MockServerWebExchange.from(request)).block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Devrait utiliser l'utilisateur authentifié comme clé")
+    void resolve_WithAuthenticatedUser_ShouldUseUser() {
+        String key = keyResolver.resolve(MockServerWebExchange.from(MockServerHttpRequest.get("/").build()))
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(
+                        "alice", null, List.of(new SimpleGrantedAuthority("ROLE_USER")))))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("user:alice", key);
+    }
+
+    @Test
+    @DisplayName("Devrait utiliser l'adresse IP d'un client anonyme")
+    void resolve_WithResolvedAddress_ShouldUseIp() {
+        assertEquals("ip:127.0.0.1", resolve(MockServerHttpRequest.get("/")
+                .remoteAddress(new InetSocketAddress("127.0.0.1", 54321)).build()));
+    }
+
+    @Test
+    @DisplayName("Devrait utiliser le nom d'hôte reçu quand l'adresse n'est pas résolue")
+    void resolve_WithUnresolvedAddress_ShouldUseHostString() {
+        assertEquals("ip:client.invalid", resolve(MockServerHttpRequest.get("/")
+                .remoteAddress(InetSocketAddress.createUnresolved("client.invalid", 54321)).build()));
+    }
+
+    @Test
+    @DisplayName("Devrait utiliser unknown sans adresse du client")
+    void resolve_WithoutAddress_ShouldUseUnknown() {
+        assertEquals("ip:unknown", resolve(MockServerHttpRequest.get("/").build()));
+    }
+
+}
@@ -0,0 +1,111 @@
+package fr.medilabo.solutions.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore;
+import fr.medilabo.solutions.gateway.filter.ResponseCacheStore.CachedResponse;
+
+@DisplayName("Patient Fallback Controller Tests")
+class PatientFallbackControllerTest {
+
+    private static final URI ORIGINAL = URI.create("http://localhost:8080/api/patient/1");
+
+    private final ResponseCacheStore store = mock(ResponseCacheStore.class);
+    private final PatientFallbackController controller = new PatientFallbackController(store);
+
+    private static MockServerWebExchange forwarded(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Set<URI> originalUrls = new LinkedHashSet<>();
+        originalUrls.add(ORIGINAL);
+        exchange.getAttributes().put(GATEWAY_ORIGINAL_REQUEST_URL_ATTR, originalUrls);
+        return exchange;
+    }
+
+    private ResponseEntity<byte[]> fallback(MockServerWebExchange exchange, String user) {
+        return controller.fallback(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority("ROLE_USER")))))
+                .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Devrait servir la dernière réponse connue de l'utilisateur, marquée no-store")
+    void fallback_WithStaleResponse_ShouldServeItWithNoStore() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"1-3\"");
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        when(store.lastKnown("alice", ORIGINAL))
+                .thenReturn(Optional.of(new CachedResponse(200, HttpHeaders.readOnlyHttpHeaders(headers), body)));
+
+        // When
+        ResponseEntity<byte[]> response = fallback(forwarded(MockServerHttpRequest.get("/fallback/patient").build()),
+                "alice");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body, response.getBody());
+        assertEquals("STALE", response.getHeaders().getFirst("X-Cache"));
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    @DisplayName("Devrait répondre 503 sans réponse connue pour l'utilisateur")
+    void fallback_WithoutStaleResponse_ShouldReturn503() {
+        // Given
+        when(store.lastKnown(anyString(), any(URI.class))).thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<byte[]> response = fallback(forwarded(MockServerHttpRequest.get("/fallback/patient").build()),
+                "bob");
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(store).lastKnown("bob", ORIGINAL);
+    }
+
+    @Test
+    @DisplayName("Devrait répondre 503 à une écriture sans consulter le cache")
+    void fallback_WithWrite_ShouldReturn503() {
+        // When
+        ResponseEntity<byte[]> response = fallback(
+                forwarded(MockServerHttpRequest.put("/fallback/patient").build()), "alice");
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        verify(store, never()).lastKnown(anyString(), any(URI.class));
+    }
+
+}
@@ -0,0 +1,141 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("Budgeted Retry Filter Tests")
+class BudgetedRetryGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private GatewayFilter filter(RetryBudget budget) {
+        return new BudgetedRetryGatewayFilterFactory(budget, registry)
+                .apply(new BudgetedRetryGatewayFilterFactory.Config().setFirstBackoff(Duration.ofMillis(1)));
+    }
+
+    // Service simulé : répond 503 aux premiers appels, 200 ensuite
+    private GatewayFilterChain service(int failures) {
+        return exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(call <= failures ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange send(GatewayFilter filter, MockServerHttpRequest request,
+            GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private double counter(String outcome) {
+        return registry.get("gateway.retry").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Devrait refaire un GET en échec et transmettre la réponse de la nouvelle tentative")
+    void get_WithTransientFailure_ShouldRetry() {
+        // Given
+        GatewayFilter filter = filter(new RetryBudget(20, 5, 100));
+
+        // When
+        MockServerWebExchange exchange = send(filter, MockServerHttpRequest.get("/api/patient/1").build(),
+                service(1));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(1, counter("retried"));
+    }
+
+    @Test
+    @DisplayName("Devrait ne jamais refaire une écriture")
+    void put_WithFailure_ShouldNotRetry() {
+        // Given
+        GatewayFilter filter = filter(new RetryBudget(20, 5, 100));
+
+        // When
+        MockServerWebExchange post = send(filter, MockServerHttpRequest.post("/api/patient").build(), service(10));
+        MockServerWebExchange put = send(filter, MockServerHttpRequest.put("/api/patient/1").build(), service(10));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, post.getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, put.getResponse().getStatusCode());
+        assertEquals(0, counter("retried"));
+    }
+
+    @Test
+    @DisplayName("Devrait ne pas refaire un GET coupé après le début de la réponse")
+    void get_WithFailureAfterCommit_ShouldNotRetry() {
+        // Given : le service envoie une première ligne puis la connexion est coupée
+        GatewayFilter filter = filter(new RetryBudget(20, 5, 100));
+        GatewayFilterChain stream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(Flux.just(exchange.getResponse().bufferFactory()
+                    .wrap("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)))
+                    .concatWith(Flux.error(new IOException("Connection reset by peer"))));
+        };
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("/api/patient/export").build());
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> filter.filter(exchange, stream).block(Duration.ofSeconds(5)));
+
+        // Then
+        assertTrue(error.getCause() instanceof IOException || error instanceof UncheckedIOException,
+                error.toString());
+        assertTrue(exchange.getResponse().isCommitted());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, counter("retried"));
+    }
+
+    @Test
+    @DisplayName("Devrait cesser les nouvelles tentatives une fois le budget épuisé")
+    void get_WhenBudgetExhausted_ShouldStopRetrying() {
+        // Given : un plancher d'une tentative, sans crédit apporté par les requêtes
+        AtomicLong now = new AtomicLong();
+        GatewayFilter filter = filter(new RetryBudget(0, 1, 100, now::get));
+
+        // When
+        MockServerWebExchange first = send(filter, MockServerHttpRequest.get("/api/patient/1").build(),
+                service(Integer.MAX_VALUE));
+        int afterFirst = upstreamCalls.get();
+        MockServerWebExchange second = send(filter, MockServerHttpRequest.get("/api/patient/1").build(),
+                service(Integer.MAX_VALUE));
+
+        // Then
+        assertEquals(2, afterFirst);
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        assertEquals(1, counter("retried"));
+        assertEquals(2, counter("budget-exhausted"));
+    }
+
+}
@@ -0,0 +1,73 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Retry Budget Tests")
+class RetryBudgetTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Devrait accorder une tentative pour cinq requêtes avec un budget de 20 %")
+    void tryWithdraw_ShouldFollowDeposits() {
+        // Given
+        RetryBudget budget = new RetryBudget(20, 1, 100, now::get);
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            budget.deposit();
+        }
+
+        // Then
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    @DisplayName("Devrait plafonner le budget à max-balance")
+    void deposit_ShouldBeCappedByMaxBalance() {
+        // Given
+        RetryBudget budget = new RetryBudget(100, 1, 2, now::get);
+        assertTrue(budget.tryWithdraw());
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            budget.deposit();
+        }
+
+        // Then
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    @DisplayName("Devrait garder le plancher de tentatives par seconde sans trafic")
+    void tryWithdraw_WithoutTraffic_ShouldRefillFloor() {
+        // Given
+        RetryBudget budget = new RetryBudget(20, 2, 100, now::get);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        // When
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // Then
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+}
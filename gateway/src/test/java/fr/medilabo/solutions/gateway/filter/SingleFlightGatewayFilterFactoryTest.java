@@ -0,0 +1,184 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("Single Flight Filter Tests")
+class SingleFlightGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlightGatewayFilterFactory factory = new SingleFlightGatewayFilterFactory(registry, "200ms",
+            "64B");
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    // Retient la réponse du premier appel au service jusqu'à son émission
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    private GatewayFilterChain service(HttpStatus status, String body) {
+        return exchange -> {
+            Mono<Void> wait = upstreamCalls.incrementAndGet() == 1 ? gate.asMono() : Mono.empty();
+            return wait.then(Mono.defer(() -> {
+                exchange.getResponse().setStatusCode(status);
+                exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                        .wrap(body.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+
+    private static Mono<Void> send(GatewayFilter filter, MockServerWebExchange exchange, String user,
+            GatewayFilterChain chain) {
+        return filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority("ROLE_USER")))));
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    private double counter(String name) {
+        return registry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("Devrait servir à la requête suiveuse la réponse de la requête en cours")
+    void get_WithSimultaneousRequests_ShouldCallServiceOnce() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+        GatewayFilterChain chain = service(HttpStatus.OK, "{\"id\":1}");
+        MockServerWebExchange leader = get("/api/patient/1");
+        MockServerWebExchange follower = get("/api/patient/1");
+
+        // When
+        Mono.when(send(filter, leader, "alice", chain), send(filter, follower, "alice", chain),
+                Mono.fromRunnable(gate::tryEmitEmpty))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("{\"id\":1}", body(leader));
+        assertEquals("{\"id\":1}", body(follower));
+        assertEquals(HttpStatus.OK, follower.getResponse().getStatusCode());
+        assertEquals(1, counter("gateway.single-flight.saved"));
+    }
+
+    @Test
+    @DisplayName("Devrait ne jamais partager une réponse entre deux utilisateurs par défaut")
+    void get_WithDifferentUsers_ShouldNotCoalesce() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+        GatewayFilterChain chain = service(HttpStatus.OK, "{\"id\":1}");
+
+        // When
+        Mono.when(send(filter, get("/api/patient/1"), "alice", chain),
+                send(filter, get("/api/patient/1"), "bob", chain),
+                Mono.fromRunnable(gate::tryEmitEmpty))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, counter("gateway.single-flight.saved"));
+    }
+
+    @Test
+    @DisplayName("Devrait partager une réponse entre utilisateurs si la route l'autorise")
+    void get_WithShareAcrossUsers_ShouldCoalesceUsers() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config().setShareAcrossUsers(true));
+        GatewayFilterChain chain = service(HttpStatus.OK, "{\"id\":1}");
+        MockServerWebExchange follower = get("/api/patient/1");
+
+        // When
+        Mono.when(send(filter, get("/api/patient/1"), "alice", chain), send(filter, follower, "bob", chain),
+                Mono.fromRunnable(gate::tryEmitEmpty))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("{\"id\":1}", body(follower));
+    }
+
+    @Test
+    @DisplayName("Devrait appeler le service directement quand l'attente dépasse max-wait")
+    void get_WhenLeaderTooSlow_ShouldFallBack() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+        GatewayFilterChain chain = service(HttpStatus.OK, "{\"id\":1}");
+        MockServerWebExchange follower = get("/api/patient/1");
+
+        // When : la réponse du premier appel n'arrive qu'après la fin de la requête suiveuse
+        Mono.when(send(filter, get("/api/patient/1"), "alice", chain),
+                send(filter, follower, "alice", chain).doFinally(signal -> gate.tryEmitEmpty()))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("{\"id\":1}", body(follower));
+        assertEquals(1, counter("gateway.single-flight.fallbacks"));
+    }
+
+    @Test
+    @DisplayName("Devrait laisser chaque requête appeler le service si la réponse n'est pas partageable")
+    void get_WithErrorResponse_ShouldNotShare() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+        GatewayFilterChain chain = service(HttpStatus.INTERNAL_SERVER_ERROR, "{\"error\":true}");
+        MockServerWebExchange follower = get("/api/patient/1");
+
+        // When
+        Mono.when(send(filter, get("/api/patient/1"), "alice", chain), send(filter, follower, "alice", chain),
+                Mono.fromRunnable(gate::tryEmitEmpty))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, follower.getResponse().getStatusCode());
+        assertEquals(1, counter("gateway.single-flight.fallbacks"));
+    }
+
+    @Test
+    @DisplayName("Devrait transmettre intacte une réponse trop volumineuse sans la partager")
+    void get_WithLargeBody_ShouldPassThroughWithoutSharing() {
+        // Given
+        GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+        String large = "x".repeat(200);
+        GatewayFilterChain chain = service(HttpStatus.OK, large);
+        MockServerWebExchange leader = get("/api/patient");
+        MockServerWebExchange follower = get("/api/patient");
+
+        // When
+        Mono.when(send(filter, leader, "alice", chain), send(filter, follower, "alice", chain),
+                Mono.fromRunnable(gate::tryEmitEmpty))
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(large, body(leader));
+        assertEquals(large, body(follower));
+    }
+}
@@ -0,0 +1,146 @@
+package fr.medilabo.solutions.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@DisplayName("User Response Cache Filter Tests")
+class UserResponseCacheGatewayFilterFactoryTest {
+
+    private static final long MAXIMUM_ENTRY_SIZE = 64;
+
+    private final ResponseCacheStore store = new ResponseCacheStore(new SimpleMeterRegistry(), 1024 * 1024,
+            MAXIMUM_ENTRY_SIZE, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    private final GatewayFilter filter = new UserResponseCacheGatewayFilterFactory(store)
+            .apply(new UserResponseCacheGatewayFilterFactory.Config());
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    // Service simulé : renvoie le corps donné, découpé en morceaux de 16 octets
+    private GatewayFilterChain service(String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            if (!"GET".equals(exchange.getRequest().getMethod().name())) {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                return exchange.getResponse().setComplete();
+            }
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            Flux<DataBuffer> chunks = Flux.range(0, (bytes.length + 15) / 16)
+                    .map(i -> exchange.getResponse().bufferFactory()
+                            .wrap(java.util.Arrays.copyOfRange(bytes, i * 16, Math.min(bytes.length, i * 16 + 16))));
+            return exchange.getResponse().writeWith(chunks);
+        };
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest request, String user, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority("ROLE_USER")))))
+                .block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Devrait servir la réponse en cache au même utilisateur, jamais à un autre")
+    void get_ShouldCachePerUser() {
+        // Given
+        GatewayFilterChain chain = service("{\"id\":1}");
+
+        // When
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/patient/1").build(), "alice", chain);
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/patient/1").build(), "alice", chain);
+        MockServerWebExchange otherUser = send(MockServerHttpRequest.get("/api/patient/1").build(), "bob", chain);
+
+        // Then
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("{\"id\":1}", body(second));
+        assertEquals("MISS", otherUser.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Devrait invalider la réponse d'un patient une fois sa modification terminée")
+    void put_ShouldInvalidateOnceCompleted() {
+        // Given
+        GatewayFilterChain chain = service("{\"id\":1}");
+        send(MockServerHttpRequest.get("/api/patient/1").build(), "alice", chain);
+        send(MockServerHttpRequest.get("/api/patient/2").build(), "alice", chain);
+
+        // When
+        send(MockServerHttpRequest.put("/api/patient/1").build(), "alice", chain);
+        MockServerWebExchange modified = send(MockServerHttpRequest.get("/api/patient/1").build(), "alice", chain);
+        MockServerWebExchange other = send(MockServerHttpRequest.get("/api/patient/2").build(), "alice", chain);
+
+        // Then
+        assertEquals("MISS", modified.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", other.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Devrait transmettre intacte une réponse trop volumineuse sans la mettre en cache")
+    void get_WithLargeBody_ShouldPassThroughWithoutCaching() {
+        // Given
+        String large = "x".repeat((int) MAXIMUM_ENTRY_SIZE * 3 + 5);
+        GatewayFilterChain chain = service(large);
+
+        // When
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/patient").build(), "alice", chain);
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/patient").build(), "alice", chain);
+
+        // Then
+        assertEquals(large, body(first));
+        assertEquals(large, body(second));
+        assertEquals("MISS", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Devrait renoncer au cache dès un Content-Length supérieur à la limite")
+    void get_WithLargeContentLength_ShouldNotCache() {
+        // Given
+        GatewayFilterChain chain = exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentLength(MAXIMUM_ENTRY_SIZE + 1);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                    .wrap("petit".getBytes(StandardCharsets.UTF_8))));
+        };
+
+        // When
+        send(MockServerHttpRequest.get("/api/patient/3").build(), "alice", chain);
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/patient/3").build(), "alice", chain);
+
+        // Then
+        assertEquals("MISS", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.get());
+    }
+}
@@ -0,0 +1,168 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("Consistent Hash Load Balancer Tests")
+class ConsistentHashLoadBalancerTest {
+
+    private static final String SERVICE_ID = "patient";
+
+    private final InstanceStatsRegistry stats = new InstanceStatsRegistry(Duration.ofSeconds(10), 5,
+            Duration.ofSeconds(30), System::nanoTime);
+
+    @Test
+    @DisplayName("Should always route the same patient to the same instance")
+    void choose_SamePatient_ShouldBeSticky() {
+        // Given
+        ConsistentHashLoadBalancer loadBalancer = loadBalancer(instances(3));
+
+        // When
+        ServiceInstance first = choose(loadBalancer, "/api/patient/42", Map.of());
+
+        // Then
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first, choose(loadBalancer, "/api/patient/42", Map.of()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should only move the patients of the removed instance")
+    void choose_WhenInstanceRemoved_ShouldMoveMinimalKeys() {
+        // Given
+        List<ServiceInstance> instances = instances(4);
+        Map<Integer, ServiceInstance> before = assignments(loadBalancer(instances), 1000);
+        ServiceInstance removed = instances.get(1);
+
+        // When
+        Map<Integer, ServiceInstance> after = assignments(
+                loadBalancer(instances.stream().filter(instance -> instance != removed).toList()), 1000);
+
+        // Then
+        int moved = 0;
+        for (int id = 0; id < 1000; id++) {
+            if (!before.get(id).equals(removed)) {
+                assertEquals(before.get(id), after.get(id), "le patient " + id + " n'aurait pas dû changer");
+            } else {
+                moved++;
+            }
+        }
+        assertTrue(moved > 150 && moved < 350, "répartition déséquilibrée : " + moved + " patients sur 1000");
+    }
+
+    @Test
+    @DisplayName("Should move to the next instance when the owner already failed for the request")
+    void choose_WhenOwnerFailed_ShouldFallbackToNextNode() {
+        // Given
+        ConsistentHashLoadBalancer loadBalancer = loadBalancer(instances(3));
+        ServiceInstance owner = choose(loadBalancer, "/api/patient/7", Map.of());
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(LatencyRecordingLifecycle.FAILED_INSTANCES_ATTR, Set.of(InstanceStatsRegistry.key(owner)));
+
+        // When
+        ServiceInstance next = choose(loadBalancer, "/api/patient/7", attributes);
+
+        // Then
+        assertNotEquals(owner, next);
+        assertEquals(next, choose(loadBalancer, "/api/patient/7", attributes));
+    }
+
+    @Test
+    @DisplayName("Should skip an instance above the load bound")
+    void choose_WhenOwnerOverloaded_ShouldSkipIt() {
+        // Given
+        ConsistentHashLoadBalancer loadBalancer = loadBalancer(instances(3));
+        ServiceInstance owner = choose(loadBalancer, "/api/patient/7", Map.of());
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            stats.start(owner);
+        }
+
+        // Then
+        assertNotEquals(owner, choose(loadBalancer, "/api/patient/7", Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should delegate requests without patient id to the fallback balancer")
+    void choose_WithoutPatientId_ShouldUseFallback() {
+        // Given
+        ServiceInstance only = instances(1).get(0);
+        ConsistentHashLoadBalancer loadBalancer = new ConsistentHashLoadBalancer(supplier(instances(3)), SERVICE_ID,
+                stats, new LatencyAwareLoadBalancer(supplier(List.of(only)), SERVICE_ID, stats), 160, 1.25);
+
+        // When & Then
+        assertEquals(only, choose(loadBalancer, "/api/patient", Map.of()));
+    }
+
+    private Map<Integer, ServiceInstance> assignments(ConsistentHashLoadBalancer loadBalancer, int patients) {
+        Map<Integer, ServiceInstance> assignments = new HashMap<>();
+        for (int id = 0; id < patients; id++) {
+            assignments.put(id, choose(loadBalancer, "/api/patient/" + id, Map.of()));
+        }
+        return assignments;
+    }
+
+    private ConsistentHashLoadBalancer loadBalancer(List<ServiceInstance> instances) {
+        return new ConsistentHashLoadBalancer(supplier(instances), SERVICE_ID, stats,
+                new LatencyAwareLoadBalancer(supplier(instances), SERVICE_ID, stats), 160, 1.25);
+    }
+
+    private static ServiceInstance choose(ConsistentHashLoadBalancer loadBalancer, String path,
+            Map<String, Object> attributes) {
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://patient" + path),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), attributes);
+        return loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(requestData))).block().getServer();
+    }
+
+    private static List<ServiceInstance> instances(int count) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            instances.add(new DefaultServiceInstance("patient-" + i, SERVICE_ID, "10.0.0." + (i + 1), 8081, false));
+        }
+        return instances;
+    }
+
+    private static ObjectProvider<ServiceInstanceListSupplier> supplier(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        return beanFactory.getBeanProvider(ServiceInstanceListSupplier.class);
+    }
+
+}
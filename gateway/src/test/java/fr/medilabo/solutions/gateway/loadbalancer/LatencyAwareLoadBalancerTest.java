@@ -0,0 +1,182 @@
+package fr.medilabo.solutions.gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+@DisplayName("Latency Aware Load Balancer Tests")
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "patient";
+    private static final int REQUESTS = 600;
+    private static final int CONCURRENCY = 20;
+
+    private static final ServiceInstance FAST_1 = instance("fast-1", 8001);
+    private static final ServiceInstance FAST_2 = instance("fast-2", 8002);
+    private static final ServiceInstance SLOW = instance("slow", 8003);
+
+    // Temps de réponse des instances locales simulées
+    private static final Map<ServiceInstance, Duration> LATENCIES = Map.of(
+            FAST_1, Duration.ofMillis(2),
+            FAST_2, Duration.ofMillis(2),
+            SLOW, Duration.ofMillis(100));
+
+    @Test
+    @DisplayName("Devrait envoyer moins de trafic que le tourniquet à une instance lente")
+    void choose_WithSlowInstance_ShouldLowerTailLatency() {
+        // Given
+        ReactorServiceInstanceLoadBalancer roundRobin = new RoundRobinLoadBalancer(supplier(FAST_1, FAST_2, SLOW),
+                SERVICE_ID);
+
+        // When
+        List<Routed> roundRobinRequests = run(stats -> roundRobin, LatencyAwareLoadBalancerTest::registry);
+        List<Routed> latencyAwareRequests = run(stats -> new LatencyAwareLoadBalancer(
+                supplier(FAST_1, FAST_2, SLOW), SERVICE_ID, stats), LatencyAwareLoadBalancerTest::registry);
+
+        // Then : en temps virtuel, seules les requêtes parties avant la première mesure
+        // (au plus CONCURRENCY) peuvent atteindre l'instance lente
+        assertEquals(REQUESTS / 3, count(roundRobinRequests, SLOW));
+        long slow = count(latencyAwareRequests, SLOW);
+        assertTrue(slow <= CONCURRENCY, slow + " requêtes envoyées à l'instance lente");
+        assertEquals(LATENCIES.get(SLOW).toNanos(), percentile(roundRobinRequests, 0.95));
+        assertEquals(LATENCIES.get(FAST_1).toNanos(), percentile(latencyAwareRequests, 0.95));
+    }
+
+    @Test
+    @DisplayName("Devrait écarter une instance après des échecs consécutifs, puis la réessayer après le délai")
+    void choose_WithFailingInstance_ShouldEjectItForCooldown() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        InstanceStatsRegistry stats = new InstanceStatsRegistry(Duration.ofSeconds(10), 3, Duration.ofSeconds(30),
+                now::get);
+        ReactorServiceInstanceLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(supplier(FAST_1, SLOW),
+                SERVICE_ID, stats);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            stats.complete(SLOW, stats.start(SLOW), true);
+        }
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            assertEquals(FAST_1, loadBalancer.choose(new DefaultRequest<>()).block().getServer());
+        }
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertFalse(stats.isEjected(SLOW));
+        stats.complete(SLOW, stats.start(SLOW), true);
+        assertTrue(stats.isEjected(SLOW));
+    }
+
+    @Test
+    @DisplayName("Devrait préférer l'instance qui a le moins de requêtes en cours à latence égale")
+    void choose_ShouldPreferLessLoadedInstance() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        InstanceStatsRegistry stats = registry(now::get);
+        long start1 = stats.start(FAST_1);
+        long start2 = stats.start(FAST_2);
+        now.addAndGet(Duration.ofMillis(2).toNanos());
+        stats.complete(FAST_1, start1, false);
+        stats.complete(FAST_2, start2, false);
+        for (int i = 0; i < 10; i++) {
+            stats.start(FAST_1);
+        }
+        ReactorServiceInstanceLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(supplier(FAST_1, FAST_2),
+                SERVICE_ID, stats);
+
+        // When & Then
+        assertNotEquals(FAST_1, loadBalancer.choose(new DefaultRequest<>()).block().getServer());
+    }
+
+    /**
+     * Envoie {@value #REQUESTS} requêtes, {@value #CONCURRENCY} à la fois, aux instances
+     * choisies par le répartiteur. Les réponses et l'horloge des statistiques suivent
+     * le même temps virtuel : le résultat ne dépend pas de la charge de la machine.
+     */
+    private static List<Routed> run(Function<InstanceStatsRegistry, ReactorServiceInstanceLoadBalancer> factory,
+            Function<LongSupplier, InstanceStatsRegistry> registry) {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        InstanceStatsRegistry stats = registry.apply(() -> scheduler.now(TimeUnit.NANOSECONDS));
+        ReactorServiceInstanceLoadBalancer loadBalancer = factory.apply(stats);
+        List<Routed> routed = new ArrayList<>();
+        StepVerifier.withVirtualTime(() -> Flux.range(0, REQUESTS)
+                .flatMap(i -> loadBalancer.choose(new DefaultRequest<>()).flatMap(response -> {
+                    ServiceInstance instance = response.getServer();
+                    long start = stats.start(instance);
+                    return Mono.delay(LATENCIES.get(instance), scheduler)
+                            .map(ignored -> {
+                                stats.complete(instance, start, false);
+                                return new Routed(instance, scheduler.now(TimeUnit.NANOSECONDS) - start);
+                            });
+                }), CONCURRENCY)
+                .collectList(), () -> scheduler, 1)
+                .thenAwait(Duration.ofMinutes(1))
+                .consumeNextWith(routed::addAll)
+                .verifyComplete();
+        return routed;
+    }
+
+    private static long count(List<Routed> requests, ServiceInstance instance) {
+        return requests.stream().filter(request -> request.instance().equals(instance)).count();
+    }
+
+    private static long percentile(List<Routed> requests, double quantile) {
+        long[] sorted = requests.stream().mapToLong(Routed::latencyNanos).sorted().toArray();
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    private static InstanceStatsRegistry registry(LongSupplier nanoClock) {
+        return new InstanceStatsRegistry(Duration.ofSeconds(10), 5, Duration.ofSeconds(30), nanoClock);
+    }
+
+    private static ObjectProvider<ServiceInstanceListSupplier> supplier(ServiceInstance... instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(List.of(instances));
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        return beanFactory.getBeanProvider(ServiceInstanceListSupplier.class);
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, SERVICE_ID, "localhost", port, false);
+    }
+
+    private record Routed(ServiceInstance instance, long latencyNanos) {
+    }
+
+}
@@ -0,0 +1,114 @@
+package fr.medilabo.solutions.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Token Bucket Tests")
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Should accept a full burst, then refill at the configured rate")
+    void tryConsume_ShouldAllowBurstThenRate() {
+        // Given
+        AtomicLong now = new AtomicLong(42 * SECOND);
+        TokenBucket bucket = new TokenBucket(10, 5, now::get);
+
+        // When & Then
+        for (int i = 4; i >= 0; i--) {
+            TokenBucket.Result result = bucket.tryConsume(1);
+            assertTrue(result.allowed());
+            assertEquals(i, result.remaining());
+        }
+        TokenBucket.Result denied = bucket.tryConsume(1);
+        assertFalse(denied.allowed());
+        assertEquals(SECOND / 10, denied.retryAfterNanos());
+
+        now.addAndGet(SECOND / 10);
+        assertTrue(bucket.tryConsume(1).allowed());
+        assertFalse(bucket.tryConsume(1).allowed());
+
+        now.addAndGet(10 * SECOND);
+        assertEquals(4, bucket.tryConsume(1).remaining());
+    }
+
+    @Test
+    @DisplayName("Should not accept more tokens than it holds")
+    void tryConsume_WithTooManyTokens_ShouldDeny() {
+        TokenBucket bucket = new TokenBucket(10, 5, () -> 0L);
+
+        assertFalse(bucket.tryConsume(6).allowed());
+        assertTrue(bucket.tryConsume(5).allowed());
+    }
+
+    @Test
+    @DisplayName("Should hold its rate under heavy contention on a single key")
+    void tryConsume_UnderContention_ShouldHoldRate() throws Exception {
+        // Given
+        int rate = 1_000;
+        int burst = 100;
+        int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+        long duration = SECOND;
+        TokenBucket bucket = new TokenBucket(rate, burst, System::nanoTime);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        // When
+        long begin;
+        long elapsed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long deadline = System.nanoTime() + duration;
+                    long allowed = 0;
+                    long decisions = 0;
+                    while (System.nanoTime() < deadline) {
+                        if (bucket.tryConsume(1).allowed()) {
+                            allowed++;
+                        }
+                        decisions++;
+                    }
+                    return new long[] { allowed, decisions };
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        elapsed = System.nanoTime() - begin;
+
+        long allowed = 0;
+        long decisions = 0;
+        long slowestThread = Long.MAX_VALUE;
+        for (Future<long[]> future : futures) {
+            long[] counts = future.get();
+            allowed += counts[0];
+            decisions += counts[1];
+            slowestThread = Math.min(slowestThread, counts[1]);
+        }
+        System.out.printf("%d threads : %d acceptées, %.0f décisions/s, %d décisions pour le thread le plus lent%n",
+                threads, allowed, decisions * (double) SECOND / elapsed, slowestThread);
+
+        // Then : jamais plus que la rafale plus le débit, et pas beaucoup moins
+        long ceiling = burst + rate * elapsed / SECOND + 1;
+        long floor = (long) ((burst + rate * duration / SECOND) * 0.9);
+        assertTrue(allowed <= ceiling, allowed + " > " + ceiling);
+        assertTrue(allowed >= floor, allowed + " < " + floor);
+        // Aucun thread n'est affamé par les CAS des autres
+        assertTrue(slowestThread > 1_000, "thread le plus lent : " + slowestThread + " décisions");
+    }
+
+}
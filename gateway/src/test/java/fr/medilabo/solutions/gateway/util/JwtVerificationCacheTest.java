@@ -0,0 +1,117 @@
+package fr.medilabo.solutions.gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("JWT Verification Cache Tests")
+class JwtVerificationCacheTest {
+
+    private static final String SECRET = "monSecretJWTTresLongEtSecurise123456789ABCDEF";
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+
+    private JwtValidatorUtil jwtValidator;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtVerificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwtValidator = spy(new JwtValidatorUtil(SECRET));
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        cache = new JwtVerificationCache(jwtValidator, meterRegistry, 100, Duration.ofMinutes(15), clock,
+                Ticker.systemTicker());
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve the next requests from the cache")
+    void verify_ShouldSkipCryptographyForKnownToken() {
+        // Given
+        String jwt = token("alice", Instant.now().plus(Duration.ofHours(1)));
+
+        // When
+        String first = cache.verify(jwt).orElseThrow().subject();
+        String second = cache.verify(jwt).orElseThrow().subject();
+
+        // Then
+        assertEquals("alice", first);
+        assertEquals("alice", second);
+        verify(jwtValidator, times(1)).parseClaims(anyString());
+        assertEquals(0.5, meterRegistry.get("gateway.jwt.cache.hit.ratio").gauge().value());
+        assertEquals(1, meterRegistry.get("gateway.jwt.verification").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should not cache invalid tokens")
+    void verify_WithInvalidSignature_ShouldReturnEmptyEveryTime() {
+        // Given
+        String jwt = token("alice", Instant.now().plus(Duration.ofHours(1))) + "x";
+
+        // When & Then
+        assertTrue(cache.verify(jwt).isEmpty());
+        assertTrue(cache.verify(jwt).isEmpty());
+        verify(jwtValidator, times(2)).parseClaims(anyString());
+    }
+
+    @Test
+    @DisplayName("Should stop serving a cached token once it has expired")
+    void verify_AfterExpiration_ShouldReturnEmpty() {
+        // Given
+        Instant expiration = Instant.now().plus(Duration.ofMinutes(5));
+        String jwt = token("alice", expiration);
+        assertTrue(cache.verify(jwt).isPresent());
+
+        // When
+        now.set(expiration.plusSeconds(1));
+
+        // Then
+        assertTrue(cache.verify(jwt).isEmpty());
+    }
+
+    private String token(String subject, Instant expiration) {
+        return Jwts.builder()
+                .subject(subject)
+                .expiration(Date.from(expiration))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+}
@@ -0,0 +1,102 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import fr.medilabo.solutions.patient.PatientApplication;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.service.PatientBatchService;
+import fr.medilabo.solutions.patient.service.PatientService;
+
+/**
+ * Compare le temps d'insertion de {@code rows} patients entre la création unitaire
+ * ({@link PatientService#create}, une transaction par patient comme un
+ * {@code POST /api/patient}) et l'import par lot ({@link PatientBatchService#upsertAll},
+ * par requêtes de {@value #REQUEST_SIZE} patients).
+ *
+ * Chaque itération insère tous les patients une fois, dans une table vidée juste
+ * avant. Le contexte Spring est démarré sans serveur web ni Eureka.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientBatchInsertBenchmark {
+
+    private static final int REQUEST_SIZE = 1_000;
+
+    @Param({ "5000" })
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private PatientBatchService patientBatchService;
+    private PatientRepository patientRepository;
+    private List<PatientDto> patients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PatientApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "eureka.client.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "spring.main.keep-alive=false",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=jdbc:h2:mem:batch-insert;DB_CLOSE_DELAY=-1")
+                .run();
+        patientService = context.getBean(PatientService.class);
+        patientBatchService = context.getBean(PatientBatchService.class);
+        patientRepository = context.getBean(PatientRepository.class);
+
+        // Nouveaux patients : sans ID ni version
+        patients = SyntheticPatients.dtos(rows);
+        patients.forEach(patientDto -> {
+            patientDto.setId(0);
+            patientDto.setVersion(null);
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        patientRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void single() {
+        patients.forEach(patientService::create);
+    }
+
+    @Benchmark
+    public void batch() {
+        for (int start = 0; start < patients.size(); start += REQUEST_SIZE) {
+            patientBatchService.upsertAll(patients.subList(start, Math.min(start + REQUEST_SIZE, patients.size())));
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import fr.medilabo.solutions.patient.PatientApplication;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.service.PatientBatchService;
+import fr.medilabo.solutions.patient.service.PatientService;
+
+/**
+ * Mesure {@link PatientService#findAll} (requête JPA puis mapping en DTO) sur une
+ * base H2 en mémoire remplie de patients synthétiques.
+ *
+ * Le contexte Spring est démarré sans serveur web ni Eureka, une fois par taille
+ * de base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientFindAllBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({ "1000", "10000" })
+    private int patients;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PatientApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "eureka.client.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "spring.main.keep-alive=false",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=jdbc:h2:mem:find-all-" + patients + ";DB_CLOSE_DELAY=-1")
+                .run();
+        patientService = context.getBean(PatientService.class);
+
+        PatientBatchService patientBatchService = context.getBean(PatientBatchService.class);
+        List<PatientDto> all = SyntheticPatients.dtos(patients);
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            List<PatientDto> batch = all.subList(from, Math.min(all.size(), from + BATCH_SIZE));
+            batch.forEach(patientDto -> patientDto.setId(0));
+            patientBatchService.upsertAll(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PatientDto> findAll() {
+        return patientService.findAll();
+    }
+
+}
@@ -0,0 +1,54 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.mapper.PatientMapperImpl;
+import fr.medilabo.solutions.patient.model.Patient;
+
+/**
+ * Mesure le temps de conversion entité / DTO de {@link PatientMapper}, fait à
+ * chaque lecture et à chaque écriture d'un patient.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientMapperBenchmark {
+
+    private final PatientMapper patientMapper = new PatientMapperImpl();
+
+    private Patient patient;
+    private PatientDto patientDto;
+
+    @Setup
+    public void setUp() {
+        patient = SyntheticPatients.entity(42);
+        patientDto = SyntheticPatients.dto(42);
+    }
+
+    @Benchmark
+    public PatientDto toDto() {
+        return patientMapper.toDto(patient);
+    }
+
+    @Benchmark
+    public Patient toEntity() {
+        return patientMapper.toEntity(patientDto);
+    }
+
+}
@@ -0,0 +1,92 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.service.PatientSearchIndex;
+
+/**
+ * Mesure la latence (p50, p99...) de {@link PatientSearchIndex#search} sur un index
+ * de {@code patients} patients, pour des préfixes d'une à cinq lettres tirés d'une
+ * liste fixe de requêtes.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientSearchIndexBenchmark {
+
+    private static final int QUERIES = 200_000;
+    private static final int LIMIT = 10;
+
+    private static final String[] LASTNAMES = { "Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard",
+            "Durand", "Dubois", "Moreau", "Laurent", "Simon", "Michel", "Lefèvre", "Leroy", "Roux", "David",
+            "Bertrand", "Morel", "Fournier", "Girard", "Bonnet", "Dupont", "Lambert", "Fontaine", "Rousseau",
+            "Vincent", "Müller", "Lefebvre", "Faure", "André", "Mercier", "Blanc", "Guérin", "Boyer", "Garnier",
+            "Chevalier", "François", "Legrand", "Gauthier", "Garcia", "Perrin", "Robin", "Clément", "Morin",
+            "Nicolas", "Henry", "Roussel", "Mathieu", "Gautier", "Masson" };
+    private static final String[] FIRSTNAMES = { "Jean", "Marie", "Pierre", "Hélène", "Léa", "Chloé", "Noé",
+            "Élodie", "Jérôme", "François", "Zoé", "Anaïs", "Gaëlle", "Benoît", "Agnès", "Loïc", "Céline",
+            "Raphaël", "Maëlle", "Thérèse" };
+
+    @Param({ "1000000" })
+    private int patients;
+
+    private PatientSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new PatientSearchIndex(mock(PatientRepository.class));
+        for (int id = 1; id <= patients; id++) {
+            // Suffixe numérique en lettres : les noms restent variés sans être tous distincts
+            String suffix = Integer.toString(random.nextInt(20_000), 26).replaceAll("[0-9]", "x");
+            PatientDto patient = new PatientDto();
+            patient.setId(id);
+            patient.setLastname(LASTNAMES[random.nextInt(LASTNAMES.length)] + suffix);
+            patient.setFirstname(FIRSTNAMES[random.nextInt(FIRSTNAMES.length)]);
+            patient.setGender(id % 2 == 0 ? "M" : "F");
+            patient.setBirthDate(LocalDate.of(1940 + id % 70, 1 + id % 12, 1 + id % 28));
+            index.index(patient);
+        }
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = random.nextBoolean()
+                    ? LASTNAMES[random.nextInt(LASTNAMES.length)]
+                    : FIRSTNAMES[random.nextInt(FIRSTNAMES.length)];
+            queries[i] = name.substring(0, Math.min(name.length(), 1 + random.nextInt(5)));
+        }
+    }
+
+    @Benchmark
+    public List<PatientSummaryDto> search() {
+        String query = queries[next];
+        next = next + 1 == QUERIES ? 0 : next + 1;
+        return index.search(query, LIMIT);
+    }
+
+}
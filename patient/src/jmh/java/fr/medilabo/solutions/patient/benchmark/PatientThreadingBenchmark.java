@@ -0,0 +1,192 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.core.userdetails.User;
+
+import fr.medilabo.solutions.patient.PatientApplication;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.service.PatientBatchService;
+import fr.medilabo.solutions.patient.util.JwtUtil;
+
+/**
+ * Compare la latence (p50, p99...) des endpoints {@code /api/patient} avec les
+ * threads de plateforme de Tomcat et avec les threads virtuels
+ * ({@code spring.threads.virtual.enabled}).
+ *
+ * Le service est démarré sur un port aléatoire, puis chargé par 400 threads JMH
+ * ({@code -t} dans {@code -Djmh.args} pour changer) qui lisent un patient par ID
+ * (servi par le cache) ou une page de la liste (lue en base). Chaque requête SQL est
+ * ralentie de {@code dbLatencyMs} pour simuler l'aller-retour réseau vers une vraie
+ * base : c'est ce temps bloqué qui épuise le pool de Tomcat. Ajouter
+ * {@code -jvmArgsAppend -Djdk.tracePinnedThreads=short} pour afficher les threads
+ * virtuels bloqués sur leur thread porteur.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class PatientThreadingBenchmark {
+
+    private static final int PATIENTS = 1_000;
+
+    @Param({ "false", "true" })
+    private boolean virtualThreads;
+
+    @Param({ "5" })
+    private int dbLatencyMs;
+
+    @Param({ "50" })
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String cookie;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PatientApplication.class)
+                .properties(
+                        "server.port=0",
+                        "eureka.client.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:threading-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize)
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(new SlowJdbcPostProcessor(dbLatencyMs)))
+                .run();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Nouveaux patients : sans ID ni version
+        List<PatientDto> patients = SyntheticPatients.dtos(PATIENTS);
+        patients.forEach(patientDto -> {
+            patientDto.setId(0);
+            patientDto.setVersion(null);
+        });
+        context.getBean(PatientBatchService.class).upsertAll(patients);
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        cookie = "jwt=" + context.getBean(JwtUtil.class)
+                .generateToken(User.withUsername("benchmark").password("benchmark").build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int findById() throws IOException, InterruptedException {
+        return get("/api/patient/" + ThreadLocalRandom.current().nextInt(1, PATIENTS + 1));
+    }
+
+    @Benchmark
+    public int scroll() throws IOException, InterruptedException {
+        return get("/api/patient/scroll?size=20");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", cookie)
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("GET " + path + " : statut " + status);
+        }
+        return status;
+    }
+
+    /**
+     * Enveloppe la source de données pour ajouter une latence fixe à chaque
+     * exécution de requête SQL.
+     */
+    private static final class SlowJdbcPostProcessor implements BeanPostProcessor {
+
+        private final int latencyMs;
+
+        SlowJdbcPostProcessor(int latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || latencyMs <= 0) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection(), Connection.class);
+                }
+            };
+        }
+
+        private <T> T slow(T target, Class<T> type) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(latencyMs);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return slowStatement(result, method.getReturnType());
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object slowStatement(Object target, Class<?> type) {
+            return slow(target, (Class<Object>) type);
+        }
+    }
+
+}
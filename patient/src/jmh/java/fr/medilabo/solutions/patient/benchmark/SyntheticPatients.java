@@ -0,0 +1,52 @@
+package fr.medilabo.solutions.patient.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.model.Patient;
+
+/**
+ * Patients synthétiques, identiques d'une exécution à l'autre, partagés par les
+ * benchmarks JMH.
+ */
+final class SyntheticPatients {
+
+    private SyntheticPatients() {
+    }
+
+    static PatientDto dto(int i) {
+        PatientDto patientDto = new PatientDto();
+        patientDto.setId(i + 1);
+        patientDto.setLastname("Patient" + i);
+        patientDto.setFirstname("Bench");
+        patientDto.setBirthDate(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28));
+        patientDto.setGender(i % 2 == 0 ? "M" : "F");
+        patientDto.setAddress(i + " Rue du Test");
+        patientDto.setPhoneNumber("0123456789");
+        patientDto.setVersion(0L);
+        return patientDto;
+    }
+
+    static List<PatientDto> dtos(int count) {
+        List<PatientDto> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            patients.add(dto(i));
+        }
+        return patients;
+    }
+
+    static Patient entity(int i) {
+        Patient patient = new Patient();
+        patient.setId(i + 1);
+        patient.setLastname("Patient" + i);
+        patient.setFirstname("Bench");
+        patient.setBirthDate(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28));
+        patient.setGender(i % 2 == 0 ? "M" : "F");
+        patient.setAddress(i + " Rue du Test");
+        patient.setPhoneNumber("0123456789");
+        return patient;
+    }
+
+}
@@ -0,0 +1,65 @@
+package fr.medilabo.solutions.patient.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import fr.medilabo.solutions.patient.accesslog.AccessLogFilter;
+import fr.medilabo.solutions.patient.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Journal d'accès asynchrone du service ({@code access-log.enabled=false} pour le
+ * désactiver).
+ */
+@Configuration
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogConfig {
+
+    /**
+     * @param directory     le répertoire des fichiers du journal
+     * @param bufferSize    le nombre d'événements en attente au plus
+     * @param batchSize     le nombre d'événements écrits par lot
+     * @param fullPolicy    {@code drop} ou {@code block} quand la file est pleine
+     * @param maxFileSize   la taille d'un fichier avant rotation (ex. {@code 10MB})
+     * @param maxHistory    le nombre d'anciens fichiers conservés
+     * @param flushInterval l'attente du thread d'écriture quand la file est vide
+     */
+    @Bean(destroyMethod = "close")
+    public AccessLogWriter accessLogWriter(
+            @Value("${spring.application.name}") String service,
+            @Value("${access-log.directory:logs}") String directory,
+            @Value("${access-log.buffer-size:8192}") int bufferSize,
+            @Value("${access-log.batch-size:256}") int batchSize,
+            @Value("${access-log.full-policy:drop}") String fullPolicy,
+            @Value("${access-log.max-file-size:10MB}") String maxFileSize,
+            @Value("${access-log.max-history:5}") int maxHistory,
+            @Value("${access-log.flush-interval:200ms}") String flushInterval,
+            MeterRegistry meterRegistry) throws IOException {
+        return new AccessLogWriter(service, Path.of(directory), bufferSize, batchSize,
+                AccessLogWriter.FullPolicy.valueOf(fullPolicy.toUpperCase()),
+                DataSize.parse(maxFileSize).toBytes(), maxHistory, DurationStyle.detectAndParse(flushInterval),
+                meterRegistry);
+    }
+
+    /**
+     * Enregistre le filtre en tête de la chaîne des filtres servlet, avant Spring
+     * Security.
+     */
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLogWriter accessLogWriter) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(
+                new AccessLogFilter(accessLogWriter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+}
@@ -0,0 +1,129 @@
+package fr.medilabo.solutions.patient.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+
+/**
+ * Configuration du cache des patients.
+ *
+ * Le gestionnaire de cache est créé par Spring Boot selon {@code spring.cache.type} :
+ * avec {@code caffeine}, il utilise le builder défini ici ; avec {@code none}, le cache
+ * est désactivé sans changer le code. Caffeine ne prend aucun verrou en lecture, les
+ * lectures concurrentes ne se bloquent donc pas entre elles.
+ *
+ * Caffeine ne permet pas de combiner une taille et un poids maximum : chaque entrée
+ * pèse au moins {@code maximum-weight / maximum-size}, ce qui borne à la fois le nombre
+ * d'entrées et la mémoire occupée.
+ *
+ * Le cache suit les transactions : une éviction demandée dans une transaction n'a
+ * lieu qu'après sa validation. Sinon, une lecture concurrente faite entre l'éviction
+ * et la validation remettrait en cache l'ancienne version du patient jusqu'à son
+ * expiration. Hors transaction, l'éviction est immédiate.
+ *
+ * Avec les threads virtuels ({@code spring.threads.virtual.enabled=true}), le cache
+ * passe en mode asynchrone : sinon, la lecture en base d'un patient absent aurait
+ * lieu dans le verrou {@code synchronized} de la map de Caffeine, ce qui bloque le
+ * thread porteur du thread virtuel pendant toute la requête SQL (Java 21). Le
+ * chargement est alors fait sur un thread virtuel dédié et l'appelant l'attend sans
+ * verrou.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PATIENTS_CACHE = "patients";
+
+    /**
+     * Builder Caffeine utilisé par le gestionnaire de cache de Spring Boot.
+     *
+     * @param maximumSize   nombre maximum de patients en cache
+     * @param maximumWeight mémoire maximum estimée occupée par le cache (ex. {@code 16MB})
+     * @param ttl           durée de vie d'une entrée après son écriture (ex. {@code 10m})
+     * @param virtualThreads si les threads virtuels sont activés, les chargements
+     *                      sont exécutés sur des threads virtuels
+     * @return le builder configuré, avec statistiques pour les métriques actuator
+     */
+    @Bean
+    public Caffeine<Object, Object> caffeine(
+            @Value("${patient.cache.maximum-size:10000}") long maximumSize,
+            @Value("${patient.cache.maximum-weight:16MB}") String maximumWeight,
+            @Value("${patient.cache.ttl:10m}") String ttl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        long weightBytes = DataSize.parse(maximumWeight).toBytes();
+        int minimumWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, weightBytes / maximumSize));
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumWeight(weightBytes)
+                .weigher((Object key, Object value) -> Math.max(minimumWeight, estimateWeight(value)))
+                .expireAfterWrite(DurationStyle.detectAndParse(ttl))
+                .recordStats();
+        if (virtualThreads) {
+            caffeine.executor(new VirtualThreadTaskExecutor("patient-cache-"));
+        }
+        return caffeine;
+    }
+
+    /**
+     * Enveloppe le gestionnaire de cache créé par Spring Boot pour différer les
+     * évictions et les écritures faites dans une transaction après sa validation.
+     *
+     * @return le post-processeur qui enveloppe le gestionnaire de cache
+     */
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager
+                        && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Passe le cache en mode asynchrone lorsque les threads virtuels sont activés,
+     * pour que les chargements ne soient pas faits dans un bloc {@code synchronized}.
+     *
+     * @return le customizer du gestionnaire de cache Caffeine
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public CacheManagerCustomizer<CaffeineCacheManager> asyncCacheModeCustomizer() {
+        return cacheManager -> cacheManager.setAsyncCacheMode(true);
+    }
+
+    /**
+     * Estime en octets la place occupée par une valeur en cache.
+     */
+    private static int estimateWeight(Object value) {
+        if (value instanceof PatientDto patient) {
+            return 96 + 2 * (length(patient.getLastname()) + length(patient.getFirstname())
+                    + length(patient.getGender()) + length(patient.getAddress())
+                    + length(patient.getPhoneNumber()));
+        }
+        return 96;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+}
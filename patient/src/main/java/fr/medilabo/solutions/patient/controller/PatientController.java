@@ -1,12 +1,17 @@
 package fr.medilabo.solutions.patient.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,47 +23,264 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto;
 import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientPageDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.exception.InvalidFieldException;
 import fr.medilabo.solutions.patient.exception.ResourceNotFoundException;
+import fr.medilabo.solutions.patient.exception.VersionConflictException;
+import fr.medilabo.solutions.patient.service.PatientBatchService;
 import fr.medilabo.solutions.patient.service.PatientService;
+import fr.medilabo.solutions.patient.util.PatientFields;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
  * Contrôleur REST pour gérer les opérations CRUD sur les patients.
  * Expose les endpoints pour la gestion des patients via l'API.
+ *
+ * Les lectures d'un patient et de la liste portent un ETag : un client qui renvoie
+ * l'ETag reçu dans {@code If-None-Match} obtient une réponse 304 sans corps tant
+ * que les données n'ont pas changé.
  */
 @RestController
 @RequestMapping("/api/patient")
 public class PatientController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final String DEFAULT_SORT = "lastname,asc";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
+    // Le client peut garder la réponse, mais doit la revalider avec son ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientBatchService patientBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Récupère la liste complète des patients.
      *
-     * @return ResponseEntity contenant la liste des patients
+     * L'ETag est le compteur de modifications de la table : s'il correspond à
+     * {@code If-None-Match}, la réponse est un 304 et les patients ne sont pas lus.
+     *
+     * @param request la requête, pour la vérification de {@code If-None-Match}
+     * @return ResponseEntity contenant la liste des patients, ou {@code null} si
+     *         la réponse 304 a déjà été préparée
      */
     @GetMapping
-    public ResponseEntity<List<PatientDto>> getAllPatients() {
+    public ResponseEntity<List<PatientDto>> getAllPatients(WebRequest request) {
+        if (isCollectionNotModified(request)) {
+            return null;
+        }
         List<PatientDto> patients = patientService.findAll();
-        return ResponseEntity.ok(patients);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(patients);
+    }
+
+
+    /**
+     * Récupère la liste des patients limitée aux champs demandés.
+     *
+     * Seules les colonnes correspondantes sont lues en base et sérialisées ;
+     * l'identifiant est toujours renvoyé.
+     *
+     * @param fields  liste de champs séparés par des virgules, par exemple
+     *                {@code lastname,firstname,birthDate}
+     * @param request la requête, pour la vérification de {@code If-None-Match}
+     * @return ResponseEntity contenant un objet par patient avec les seuls champs
+     *         demandés, ou {@code null} si la réponse 304 a déjà été préparée
+     * @throws InvalidFieldException si un champ demandé n'existe pas
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllPatients(@RequestParam String fields,
+            WebRequest request) {
+        List<String> selectedFields = PatientFields.parse(fields);
+        if (isCollectionNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(patientService.findAll(selectedFields));
+    }
+
+
+    /**
+     * Récupère une page de patients triés par nom puis par identifiant, en
+     * pagination par curseur.
+     *
+     * @param cursor curseur renvoyé par la page précédente (absent pour la première page)
+     * @param size   nombre de patients par page, borné à {@value #MAX_PAGE_SIZE}
+     * @return ResponseEntity contenant la page et le curseur de la page suivante
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<PatientPageDto<PatientDto>> scrollPatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(patientService.findPage(cursor, pageSize));
+    }
+
+
+    /**
+     * Récupère une page de patients numérotée, triée selon {@code sort}.
+     *
+     * L'ETag est le compteur de modifications de la table, comme pour la liste
+     * complète.
+     *
+     * @param page    numéro de la page, à partir de 0
+     * @param size    nombre de patients par page, borné à {@value #MAX_PAGE_SIZE}
+     * @param sort    champ de tri suivi de la direction, par exemple {@code lastname,desc}
+     * @param request la requête, pour la vérification de {@code If-None-Match}
+     * @return ResponseEntity contenant la page, ou {@code null} si la réponse 304 a
+     *         déjà été préparée
+     * @throws InvalidFieldException si le champ de tri n'existe pas
+     */
+    @GetMapping("/page")
+    public ResponseEntity<PatientPageDto<PatientDto>> getPatientPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort,
+            WebRequest request) {
+        Pageable pageable = pageRequest(page, size, sort);
+        if (isCollectionNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(patientService.findPage(pageable));
+    }
+
+
+    /**
+     * Récupère une page de patients numérotée, limitée aux champs demandés.
+     *
+     * Seules les colonnes correspondantes sont lues en base et sérialisées ;
+     * l'identifiant est toujours renvoyé. L'ETag est le même que pour la page
+     * complète.
+     *
+     * @param page    numéro de la page, à partir de 0
+     * @param size    nombre de patients par page, borné à {@value #MAX_PAGE_SIZE}
+     * @param sort    champ de tri suivi de la direction, par exemple {@code lastname,desc}
+     * @param fields  liste de champs séparés par des virgules, par exemple
+     *                {@code lastname,firstname,birthDate}
+     * @param request la requête, pour la vérification de {@code If-None-Match}
+     * @return ResponseEntity contenant la page avec un objet par patient, ou
+     *         {@code null} si la réponse 304 a déjà été préparée
+     * @throws InvalidFieldException si un champ demandé ou le champ de tri n'existe pas
+     */
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<PatientPageDto<Map<String, Object>>> getPatientPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort,
+            @RequestParam String fields,
+            WebRequest request) {
+        Pageable pageable = pageRequest(page, size, sort);
+        List<String> selectedFields = PatientFields.parse(fields);
+        if (isCollectionNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE)
+                .body(patientService.findPage(pageable, selectedFields));
+    }
+
+
+    /**
+     * Recherche les patients dont le nom ou le prénom commence par les mots saisis,
+     * sans tenir compte des accents ni des majuscules (saisie semi-automatique).
+     *
+     * @param q     le texte saisi
+     * @param limit nombre maximum de résultats, borné à {@value #MAX_SEARCH_LIMIT}
+     * @return ResponseEntity contenant les patients correspondants
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientSummaryDto>> searchPatients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit) {
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok(patientService.search(q, resultLimit));
+    }
+
+
+    /**
+     * Exporte tous les patients au format JSON délimité par des retours à la ligne
+     * (NDJSON), un patient par ligne.
+     *
+     * Les patients sont lus en flux et écrits directement dans la réponse, qui est
+     * envoyée en chunks : la mémoire utilisée ne dépend pas de la taille de la table.
+     *
+     * @param response la réponse HTTP dans laquelle les patients sont écrits
+     * @throws IOException si l'écriture de la réponse échoue
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void exportPatients(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writerFor(PatientDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            patientService.exportAll(patient -> {
+                try {
+                    writer.writeValue(generator, patient);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
 
     /**
      * Récupère un patient par son identifiant.
      *
-     * @param id identifiant du patient
-     * @return ResponseEntity contenant les informations du patient
+     * L'ETag est formé de l'ID et de la version du patient, lus dans le cache :
+     * s'il correspond à {@code If-None-Match}, la réponse est un 304 sans corps.
+     *
+     * @param id      identifiant du patient
+     * @param request la requête, pour la vérification de {@code If-None-Match}
+     * @return ResponseEntity contenant les informations du patient, ou {@code null}
+     *         si la réponse 304 a déjà été préparée
      * @throws ResourceNotFoundException si le patient n'est pas trouvé
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDto> getPatient(@PathVariable int id) {
+    public ResponseEntity<PatientDto> getPatient(@PathVariable int id, WebRequest request) {
         PatientDto patient = patientService.findById(id);
-        return ResponseEntity.ok(patient);
+        if (request.checkNotModified("\"" + patient.getId() + "-" + patient.getVersion() + "\"")) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(patient);
+    }
+
+
+    /**
+     * Récupère un patient limité aux champs demandés.
+     *
+     * @param id     identifiant du patient
+     * @param fields liste de champs séparés par des virgules
+     * @return ResponseEntity contenant le patient avec les seuls champs demandés
+     * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws InvalidFieldException     si un champ demandé n'existe pas
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getPatient(@PathVariable int id, @RequestParam String fields) {
+        return ResponseEntity.ok(patientService.findById(id, PatientFields.parse(fields)));
     }
 
 
@@ -75,36 +297,83 @@ public class PatientController {
     }
 
 
+    /**
+     * Crée ou met à jour une liste de patients en un seul appel.
+     *
+     * Chaque patient est validé séparément : le résultat indique pour chacun s'il a
+     * été créé, mis à jour, rejeté comme invalide ou introuvable.
+     *
+     * @param patients les patients à importer (ID 0 pour une création), au plus
+     *                 {@value #MAX_BATCH_SIZE}
+     * @return ResponseEntity contenant un résultat par patient, dans l'ordre reçu,
+     *         ou 413 si le lot est trop grand
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PatientBatchResultDto>> upsertPatients(@RequestBody List<PatientDto> patients) {
+        if (patients.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(patientBatchService.upsertAll(patients));
+    }
+
+
     /**
      * Met à jour les informations d'un patient existant.
      *
+     * Si le corps contient la version lue, la mise à jour est refusée lorsque le
+     * patient a été modifié entre-temps. La réponse porte l'ETag de la nouvelle
+     * version, comme une lecture du patient.
+     *
      * @param id         identifiant du patient à modifier
      * @param patientDto nouvelles données du patient
      * @return ResponseEntity contenant le patient mis à jour
      * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws VersionConflictException  si la version ne correspond plus
      */
     @PutMapping("/{id}")
     public ResponseEntity<PatientDto> updatePatient(@PathVariable int id, @Valid @RequestBody PatientDto patientDto) {
-        patientService.findById(id);
-
         patientDto.setId(id);
 
         PatientDto updatedPatient = patientService.update(patientDto);
-        return ResponseEntity.ok(updatedPatient);
+        if (updatedPatient.getVersion() == null) {
+            return ResponseEntity.ok(updatedPatient);
+        }
+        return ResponseEntity.ok()
+                .eTag("\"" + updatedPatient.getId() + "-" + updatedPatient.getVersion() + "\"")
+                .body(updatedPatient);
     }
 
 
     /**
      * Supprime un patient par son identifiant.
      *
-     * @param id identifiant du patient à supprimer
+     * @param id      identifiant du patient à supprimer
+     * @param version version lue par le client (facultative)
      * @return ResponseEntity sans contenu
      * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws VersionConflictException  si la version ne correspond plus
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePatient(@PathVariable int id) {
-        PatientDto patientToDelete = patientService.findById(id);
-        patientService.delete(patientToDelete);
+    public ResponseEntity<Void> deletePatient(@PathVariable int id, @RequestParam(required = false) Long version) {
+        patientService.deleteById(id, version);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Compare {@code If-None-Match} au compteur de modifications de la table des
+     * patients. Le compteur est lu avant les patients : une écriture concurrente
+     * donne au pire un ETag plus ancien que les données, jamais l'inverse.
+     *
+     * @return {@code true} si la réponse 304 a été préparée
+     */
+    private static Pageable pageRequest(int page, int size, String sort) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return PageRequest.of(Math.max(0, page), pageSize, PatientFields.parseSort(sort));
+    }
+
+    private boolean isCollectionNotModified(WebRequest request) {
+        Optional<Long> changeCount = patientService.changeCount();
+        return changeCount.isPresent() && request.checkNotModified("\"patients-" + changeCount.get() + "\"");
+    }
+}
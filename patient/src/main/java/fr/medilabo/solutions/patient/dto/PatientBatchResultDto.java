@@ -0,0 +1,33 @@
+package fr.medilabo.solutions.patient.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat du traitement d'un patient dans un import par lot.
+ *
+ * {@code index} est la position du patient dans la liste reçue, ce qui permet
+ * au client de rapprocher chaque résultat de sa demande.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBatchResultDto {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    private int index;
+    private Status status;
+    private int id;
+    private List<String> errors;
+
+}
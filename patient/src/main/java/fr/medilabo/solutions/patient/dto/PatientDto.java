@@ -37,4 +37,10 @@ public class PatientDto {
     @Pattern(regexp = "^(\\+33|0)[1-9]([0-9]{8})$", message = "Le numéro de téléphone doit être au format français valide")
     private String phoneNumber;
 
+    /**
+     * Version du patient lue par le client. Renvoyée lors d'une mise à jour ou
+     * d'une suppression, elle garantit que le patient n'a pas été modifié entre-temps.
+     */
+    private Long version;
+
 }
@@ -0,0 +1,31 @@
+package fr.medilabo.solutions.patient.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Page de patients renvoyée par les endpoints paginés.
+ *
+ * Pour la pagination par curseur, {@code nextCursor} contient la position à
+ * transmettre pour obtenir la page suivante ; il vaut {@code null} sur la
+ * dernière page.
+ *
+ * @param <T> le type des patients de la page : {@link PatientDto}, ou une map
+ *            champ vers valeur quand seuls certains champs sont demandés
+ */
+@Data
+public class PatientPageDto<T> {
+
+    private List<T> content;
+    private int number;
+    private int size;
+    private int totalPages;
+    private long totalElements;
+    private boolean first;
+    private boolean last;
+    private int numberOfElements;
+    private boolean empty;
+    private String nextCursor;
+
+}
@@ -0,0 +1,24 @@
+package fr.medilabo.solutions.patient.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vue réduite d'un patient, limitée aux champs affichés dans une liste de
+ * résultats.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryDto {
+
+    private int id;
+    private String gender;
+    private String lastname;
+    private String firstname;
+    private LocalDate birthDate;
+
+}
@@ -0,0 +1,8 @@
+package fr.medilabo.solutions.patient.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
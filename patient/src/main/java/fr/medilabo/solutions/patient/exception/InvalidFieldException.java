@@ -0,0 +1,11 @@
+package fr.medilabo.solutions.patient.exception;
+
+/**
+ * Levée lorsqu'un champ demandé dans le paramètre {@code fields} n'existe pas.
+ */
+public class InvalidFieldException extends RuntimeException {
+    public InvalidFieldException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package fr.medilabo.solutions.patient.exception;
+
+/**
+ * Levée lorsqu'un patient a été modifié par un autre client depuis que la
+ * version fournie a été lue.
+ */
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+
+}
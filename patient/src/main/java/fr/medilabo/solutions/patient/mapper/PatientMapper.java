@@ -2,6 +2,7 @@ package fr.medilabo.solutions.patient.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import fr.medilabo.solutions.patient.dto.PatientDto;
 import fr.medilabo.solutions.patient.model.Patient;
@@ -11,8 +12,15 @@ public interface PatientMapper {
 
     public PatientDto toDto(Patient patient);
 
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     public Patient toEntity(PatientDto patientDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    public void updateEntity(PatientDto patientDto, @MappingTarget Patient patient);
+
 }
\ No newline at end of file
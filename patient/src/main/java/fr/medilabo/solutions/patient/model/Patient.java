@@ -11,16 +11,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_lastname_id", columnList = "lastname, id")
+})
 public class Patient {
 
+    // Séquence avec allocation par blocs : les ID sont attribués sans aller-retour
+    // en base, ce qui permet à Hibernate de regrouper les INSERT en lots JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private int id;
 
@@ -42,6 +50,11 @@ public class Patient {
     @Column(name = "phone_number", nullable = true, length = 15)
     private String phoneNumber;
 
+    // Verrou optimiste : incrémentée à chaque mise à jour
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Timestamp
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
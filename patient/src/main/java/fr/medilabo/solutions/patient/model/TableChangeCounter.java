@@ -0,0 +1,27 @@
+package fr.medilabo.solutions.patient.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Compteur de modifications d'une table, incrémenté à chaque écriture.
+ *
+ * Sa valeur identifie l'état de la table : elle sert d'ETag aux listes de
+ * patients, sans avoir à relire ni hacher leur contenu.
+ */
+@Data
+@Entity
+@Table(name = "table_change_counters")
+public class TableChangeCounter {
+
+    @Id
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    @Column(name = "change_count", nullable = false)
+    private long changeCount;
+
+}
@@ -1,10 +1,112 @@
 package fr.medilabo.solutions.patient.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import fr.medilabo.solutions.patient.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Integer> {
+public interface PatientRepository extends JpaRepository<Patient, Integer>, PatientRepositoryCustom {
+
+    /**
+     * Récupère la première page de patients triés par nom puis par identifiant.
+     *
+     * @param limit nombre maximum de patients à retourner
+     * @return les premiers patients dans l'ordre (lastname, id)
+     */
+    @Query("SELECT p FROM Patient p ORDER BY p.lastname ASC, p.id ASC")
+    List<Patient> findFirstPage(Limit limit);
+
+    /**
+     * Récupère les patients situés strictement après la position (lastname, id)
+     * donnée, dans l'ordre (lastname, id).
+     *
+     * Pagination par clé (keyset) : la requête ne dépend d'aucun offset, elle reste
+     * donc stable même si des patients sont insérés entre deux appels.
+     *
+     * @param lastname nom du dernier patient de la page précédente
+     * @param id       identifiant du dernier patient de la page précédente
+     * @param limit    nombre maximum de patients à retourner
+     * @return les patients suivant la position donnée
+     */
+    @Query("SELECT p FROM Patient p"
+            + " WHERE p.lastname > :lastname OR (p.lastname = :lastname AND p.id > :id)"
+            + " ORDER BY p.lastname ASC, p.id ASC")
+    List<Patient> findPageAfter(@Param("lastname") String lastname, @Param("id") int id, Limit limit);
+
+    /**
+     * Met à jour un patient en une seule requête, à condition que sa version
+     * n'ait pas changé. La version est incrémentée.
+     *
+     * @param patient les nouvelles données du patient (son ID désigne la ligne à modifier)
+     * @param version la version lue par le client
+     * @return le nombre de lignes modifiées : 0 si le patient n'existe pas ou a changé de version
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Patient p SET"
+            + " p.firstname = :#{#patient.firstname}, p.lastname = :#{#patient.lastname},"
+            + " p.birthDate = :#{#patient.birthDate}, p.gender = :#{#patient.gender},"
+            + " p.address = :#{#patient.address}, p.phoneNumber = :#{#patient.phoneNumber},"
+            + " p.version = p.version + 1, p.updatedAt = LOCAL DATETIME"
+            + " WHERE p.id = :#{#patient.id} AND p.version = :version")
+    int updateIfVersion(@Param("patient") Patient patient, @Param("version") long version);
+
+    /**
+     * Met à jour un patient en une seule requête, quelle que soit sa version.
+     * La version est incrémentée.
+     *
+     * @param patient les nouvelles données du patient (son ID désigne la ligne à modifier)
+     * @return le nombre de lignes modifiées : 0 si le patient n'existe pas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Patient p SET"
+            + " p.firstname = :#{#patient.firstname}, p.lastname = :#{#patient.lastname},"
+            + " p.birthDate = :#{#patient.birthDate}, p.gender = :#{#patient.gender},"
+            + " p.address = :#{#patient.address}, p.phoneNumber = :#{#patient.phoneNumber},"
+            + " p.version = p.version + 1, p.updatedAt = LOCAL DATETIME"
+            + " WHERE p.id = :#{#patient.id}")
+    int updateIgnoringVersion(@Param("patient") Patient patient);
+
+    /**
+     * Lit la version d'un patient, sans charger l'entité.
+     *
+     * @param id identifiant du patient
+     * @return la version du patient, ou vide s'il n'existe pas
+     */
+    @Query("SELECT p.version FROM Patient p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    /**
+     * Supprime un patient en une seule requête, à condition que sa version
+     * n'ait pas changé.
+     *
+     * @param id      identifiant du patient à supprimer
+     * @param version la version lue par le client
+     * @return le nombre de lignes supprimées : 0 si le patient n'existe pas ou a changé de version
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Patient p WHERE p.id = :id AND p.version = :version")
+    int deleteIfVersion(@Param("id") int id, @Param("version") long version);
+
+    /**
+     * Supprime un patient en une seule requête, quelle que soit sa version.
+     *
+     * @param id identifiant du patient à supprimer
+     * @return le nombre de lignes supprimées : 0 si le patient n'existe pas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Patient p WHERE p.id = :id")
+    int deleteIgnoringVersion(@Param("id") int id);
 
 }
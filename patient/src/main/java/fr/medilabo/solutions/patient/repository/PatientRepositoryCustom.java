@@ -0,0 +1,54 @@
+package fr.medilabo.solutions.patient.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import fr.medilabo.solutions.patient.model.Patient;
+
+/**
+ * Fragment de repository pour les lectures de patients qui ne s'expriment pas
+ * avec les requêtes dérivées de Spring Data.
+ */
+public interface PatientRepositoryCustom {
+
+    /**
+     * Parcourt tous les patients en flux, dans l'ordre des identifiants.
+     *
+     * Le flux doit être consommé dans une transaction et fermé après usage.
+     *
+     * @return un flux de patients détachés du contexte de persistance
+     */
+    Stream<Patient> streamAll();
+
+    /**
+     * Récupère tous les patients en ne sélectionnant que les colonnes demandées.
+     *
+     * @param fields les attributs de {@link Patient} à sélectionner
+     * @return une ligne par patient, attribut vers valeur, dans l'ordre des champs demandés
+     */
+    List<Map<String, Object>> findAllWithFields(List<String> fields);
+
+    /**
+     * Récupère une page de patients en ne sélectionnant que les colonnes demandées.
+     *
+     * @param fields   les attributs de {@link Patient} à sélectionner
+     * @param pageable numéro et taille de la page, et ordre des patients
+     * @return la page, une ligne par patient, avec le nombre total de patients
+     */
+    Page<Map<String, Object>> findPageWithFields(List<String> fields, Pageable pageable);
+
+    /**
+     * Récupère un patient en ne sélectionnant que les colonnes demandées.
+     *
+     * @param id     identifiant du patient
+     * @param fields les attributs de {@link Patient} à sélectionner
+     * @return le patient, attribut vers valeur, ou vide s'il n'existe pas
+     */
+    Optional<Map<String, Object>> findByIdWithFields(int id, List<String> fields);
+
+}
@@ -0,0 +1,113 @@
+package fr.medilabo.solutions.patient.repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import fr.medilabo.solutions.patient.model.Patient;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Implémentation de {@link PatientRepositoryCustom}.
+ *
+ * Le flux s'appuie sur un curseur JDBC en lecture seule et en avant uniquement :
+ * les lignes sont lues par lots de {@code patient.export.fetch-size} et chaque
+ * entité est détachée dès sa lecture, ce qui garde la mémoire constante quelle que
+ * soit la taille de la table. Avec MySQL, le pilote n'honore la taille de lot que
+ * si {@code useCursorFetch=true} est présent dans l'URL JDBC.
+ *
+ * Les lectures avec sélection de champs construisent une projection sur les seuls
+ * attributs demandés : les autres colonnes ne sont ni lues ni transférées.
+ */
+public class PatientRepositoryImpl implements PatientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${patient.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Patient> streamAll() {
+        return entityManager.createQuery("SELECT p FROM Patient p ORDER BY p.id", Patient.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllWithFields(List<String> fields) {
+        CriteriaQuery<Tuple> query = projection(fields);
+        Root<?> patient = query.getRoots().iterator().next();
+        query.orderBy(entityManager.getCriteriaBuilder().asc(patient.get("id")));
+        return entityManager.createQuery(query)
+                .getResultList().stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Page<Map<String, Object>> findPageWithFields(List<String> fields, Pageable pageable) {
+        CriteriaQuery<Tuple> query = projection(fields);
+        Root<?> patient = query.getRoots().iterator().next();
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), patient, entityManager.getCriteriaBuilder()));
+        List<Map<String, Object>> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList().stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, this::countAll);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findByIdWithFields(int id, List<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = projection(fields);
+        Root<?> patient = query.getRoots().iterator().next();
+        query.where(builder.equal(patient.get("id"), id));
+        return entityManager.createQuery(query)
+                .getResultList().stream()
+                .findFirst()
+                .map(tuple -> toMap(tuple, fields));
+    }
+
+    private CriteriaQuery<Tuple> projection(List<String> fields) {
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Patient> patient = query.from(Patient.class);
+        query.multiselect(fields.stream().<Selection<?>>map(field -> patient.get(field).alias(field)).toList());
+        return query;
+    }
+
+    private long countAll() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        query.select(builder.count(query.from(Patient.class)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+}
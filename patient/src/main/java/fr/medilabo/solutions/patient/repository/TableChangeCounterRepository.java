@@ -0,0 +1,39 @@
+package fr.medilabo.solutions.patient.repository;
+
+import java.util.Optional;
+
+import fr.medilabo.solutions.patient.model.TableChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface TableChangeCounterRepository extends JpaRepository<TableChangeCounter, String> {
+
+    /**
+     * Lit le compteur de modifications d'une table.
+     *
+     * @param tableName nom de la table
+     * @return la valeur du compteur, ou vide si la table n'a pas de compteur
+     */
+    @Query("SELECT c.changeCount FROM TableChangeCounter c WHERE c.tableName = :tableName")
+    Optional<Long> findChangeCount(@Param("tableName") String tableName);
+
+    /**
+     * Incrémente le compteur de modifications d'une table en une seule requête.
+     *
+     * Rejoint la transaction en cours s'il y en a une : le compteur change alors
+     * en même temps que les données.
+     *
+     * @param tableName nom de la table
+     * @return le nombre de lignes modifiées : 0 si la table n'a pas de compteur
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE TableChangeCounter c SET c.changeCount = c.changeCount + 1 WHERE c.tableName = :tableName")
+    int increment(@Param("tableName") String tableName);
+
+}
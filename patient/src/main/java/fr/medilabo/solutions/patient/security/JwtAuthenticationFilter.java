@@ -1,5 +1,7 @@
 package fr.medilabo.solutions.patient.security;
 
+import fr.medilabo.solutions.patient.accesslog.AccessLogFilter;
+import fr.medilabo.solutions.patient.util.InternalIdentityVerifier;
 import fr.medilabo.solutions.patient.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,6 +25,15 @@ import java.util.Optional;
 /**
  * Filtre d'authentification JWT qui extrait et valide les jetons JWT des cookies.
  * Ce filtre s'exécute une fois par requête et gère l'authentification basée sur les jetons JWT.
+ *
+ * Une requête relayée par la gateway porte l'en-tête signé
+ * {@link InternalIdentityVerifier#HEADER} : le JWT y a déjà été validé, et l'en-tête
+ * est accepté après un seul contrôle HMAC. Le cookie JWT n'est vérifié qu'en son
+ * absence (appel direct au service).
+ *
+ * Le filtre ne garde aucun état partagé et ne prend aucun verrou : il s'exécute tel
+ * quel sur un thread virtuel ({@code spring.threads.virtual.enabled=true}), le
+ * contexte de sécurité restant propre au thread de la requête.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -33,6 +44,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private InternalIdentityVerifier identityVerifier;
+
     /**
      * Traite la requête entrante pour extraire et valider le jeton JWT des cookies.
      * Configure le contexte d'authentification si le jeton est valide.
@@ -51,6 +65,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String requestURI = request.getRequestURI();
 
+        String identity = request.getHeader(InternalIdentityVerifier.HEADER);
+        if (identity != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<String> gatewayUser = identityVerifier.verify(identity);
+            if (gatewayUser.isPresent()) {
+                authenticate(gatewayUser.get(), request);
+                filterChain.doFilter(request, response);
+                return;
+            }
+            logger.warn("En-tête {} invalide ou expiré pour la requête {}", InternalIdentityVerifier.HEADER, requestURI);
+        }
+
         String jwt = extractJwtFromCookies(request);
         String username = null;
 
@@ -68,16 +93,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
             if (jwtUtil.validateToken(jwt)) {
-                logger.info("JWT valide pour `{}`", username);
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username,
-                        null,
-                        List.of(new SimpleGrantedAuthority("ROLE_USER")));
-
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                logger.debug("Authentification configurée pour `{}`", username);
+                logger.debug("JWT valide pour `{}`", username);
+                authenticate(username, request);
             } else {
                 logger.warn("JWT invalide ou expiré pour `{}`", username);
             }
@@ -86,6 +103,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Configure le contexte d'authentification pour l'utilisateur.
+     *
+     * @param username le nom d'utilisateur authentifié
+     * @param request la requête HTTP servlet
+     */
+    private void authenticate(String username, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                username,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        request.setAttribute(AccessLogFilter.USER_ATTR, username);
+
+        logger.debug("Authentification configurée pour `{}`", username);
+    }
+
     /**
      * Extrait le jeton JWT des cookies de la requête.
      *
@@ -0,0 +1,30 @@
+package fr.medilabo.solutions.patient.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Report d'une action après la validation de la transaction en cours.
+ *
+ * Sert aux mises à jour de l'index de recherche, qui n'est pas transactionnel :
+ * une écriture annulée ne doit pas y apparaître. Hors transaction, l'action est
+ * exécutée immédiatement.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
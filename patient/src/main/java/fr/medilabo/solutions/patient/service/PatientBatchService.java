@@ -0,0 +1,176 @@
+package fr.medilabo.solutions.patient.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.medilabo.solutions.patient.config.CacheConfig;
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto;
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto.Status;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+
+/**
+ * Service d'import de patients par lot.
+ *
+ * Chaque patient est validé individuellement : un patient invalide ou introuvable
+ * est signalé dans son résultat sans bloquer le reste du lot. Les patients valides
+ * sont écrits par tranches de {@code hibernate.jdbc.batch_size} : chaque tranche est
+ * envoyée en un seul lot JDBC puis retirée du contexte de persistance, ce qui garde
+ * la mémoire constante quelle que soit la taille du lot.
+ *
+ * Les patients mis à jour sont retirés du cache après la validation de la
+ * transaction (le gestionnaire de cache suit les transactions, voir
+ * {@link CacheConfig}), pour qu'une lecture concurrente ne remette pas en cache
+ * l'ancienne version. L'index de recherche n'est lui aussi mis à jour qu'après la validation.
+ * Le compteur de modifications de la table est incrémenté une fois par lot, dans
+ * la même transaction que les écritures.
+ */
+@Service
+public class PatientBatchService {
+
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final Cache patientCache;
+    private final PatientSearchIndex searchIndex;
+    private final TableChangeCounterRepository changeCounterRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PatientBatchService(PatientRepository patientRepository, PatientMapper patientMapper,
+            Validator validator, CacheManager cacheManager, PatientSearchIndex searchIndex,
+            TableChangeCounterRepository changeCounterRepository,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.patientRepository = patientRepository;
+        this.patientMapper = patientMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.patientCache = cacheManager.getCache(CacheConfig.PATIENTS_CACHE);
+        this.searchIndex = searchIndex;
+        this.changeCounterRepository = changeCounterRepository;
+    }
+
+    /**
+     * Crée ou met à jour une liste de patients.
+     *
+     * Un patient sans ID (ou avec l'ID 0) est créé ; un patient avec un ID est mis
+     * à jour s'il existe et, si sa version est fournie, s'il est toujours dans
+     * cette version. Les écritures ont lieu dans une seule transaction : une
+     * erreur de base de données annule tout le lot.
+     *
+     * @param patients les patients à créer ou mettre à jour
+     * @return un résultat par patient, dans l'ordre de la liste reçue
+     */
+    @Transactional
+    public List<PatientBatchResultDto> upsertAll(List<PatientDto> patients) {
+        PatientBatchResultDto[] results = new PatientBatchResultDto[patients.size()];
+        List<Integer> creations = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+        List<PatientDto> written = new ArrayList<>();
+
+        for (int i = 0; i < patients.size(); i++) {
+            PatientDto patientDto = patients.get(i);
+            List<String> errors = validate(patientDto);
+            if (!errors.isEmpty()) {
+                results[i] = new PatientBatchResultDto(i, Status.INVALID, patientDto == null ? 0 : patientDto.getId(), errors);
+            } else if (patientDto.getId() > 0) {
+                updates.add(i);
+            } else {
+                creations.add(i);
+            }
+        }
+
+        updateChunks(patients, updates, results, written);
+        createChunks(patients, creations, results, written);
+        if (!written.isEmpty()) {
+            changeCounterRepository.increment(PatientService.PATIENTS_TABLE);
+        }
+        AfterCommit.run(() -> written.forEach(searchIndex::index));
+
+        return List.of(results);
+    }
+
+    private void updateChunks(List<PatientDto> patients, List<Integer> updates, PatientBatchResultDto[] results,
+            List<PatientDto> written) {
+        // Tri par ID : les UPDATE d'une tranche sont regroupés et les lignes verrouillées
+        // toujours dans le même ordre
+        updates.sort(Comparator.comparingInt(index -> patients.get(index).getId()));
+
+        for (int start = 0; start < updates.size(); start += batchSize) {
+            List<Integer> chunk = updates.subList(start, Math.min(start + batchSize, updates.size()));
+            Set<Integer> ids = chunk.stream().map(index -> patients.get(index).getId()).collect(Collectors.toSet());
+            Map<Integer, Patient> existing = patientRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+            for (int index : chunk) {
+                PatientDto patientDto = patients.get(index);
+                Patient patient = existing.get(patientDto.getId());
+                if (patient == null) {
+                    results[index] = new PatientBatchResultDto(index, Status.NOT_FOUND, patientDto.getId(),
+                            List.of("Patient not found with id: " + patientDto.getId()));
+                } else if (patientDto.getVersion() != null && patientDto.getVersion() != patient.getVersion()) {
+                    results[index] = new PatientBatchResultDto(index, Status.CONFLICT, patientDto.getId(),
+                            List.of("Patient " + patientDto.getId() + " has been modified by another request"));
+                } else {
+                    patientMapper.updateEntity(patientDto, patient);
+                    patientCache.evict(patient.getId());
+                    written.add(patientMapper.toDto(patient));
+                    results[index] = new PatientBatchResultDto(index, Status.UPDATED, patient.getId(), List.of());
+                }
+            }
+            flushAndClear();
+        }
+    }
+
+    private void createChunks(List<PatientDto> patients, List<Integer> creations, PatientBatchResultDto[] results,
+            List<PatientDto> written) {
+        for (int start = 0; start < creations.size(); start += batchSize) {
+            List<Integer> chunk = creations.subList(start, Math.min(start + batchSize, creations.size()));
+            for (int index : chunk) {
+                Patient patient = patientMapper.toEntity(patients.get(index));
+                patient.setId(0);
+                // L'ID est attribué par la séquence dès persist(), sans attendre l'INSERT
+                entityManager.persist(patient);
+                written.add(patientMapper.toDto(patient));
+                results[index] = new PatientBatchResultDto(index, Status.CREATED, patient.getId(), List.of());
+            }
+            flushAndClear();
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<String> validate(PatientDto patientDto) {
+        if (patientDto == null) {
+            return List.of("Patient manquant");
+        }
+        return validator.validate(patientDto).stream()
+                .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,192 @@
+package fr.medilabo.solutions.patient.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.util.SearchText;
+
+/**
+ * Index en mémoire des noms et prénoms des patients pour la recherche par préfixe.
+ *
+ * Chaque mot du nom et du prénom, sans accents ni majuscules, est une clé d'une
+ * {@link ConcurrentSkipListMap} triée : une recherche est une lecture de plage à
+ * partir du préfixe saisi, en O(log n) quel que soit le nombre de patients. Les
+ * lectures ne prennent aucun verrou ; les écritures d'un même patient sont
+ * sérialisées par {@link ConcurrentHashMap#compute}.
+ *
+ * L'index est construit au démarrage à partir de la base, puis tenu à jour par
+ * {@link PatientService} et {@link PatientBatchService}.
+ */
+@Component
+public class PatientSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::token).thenComparingInt(Key::id);
+
+    private final ConcurrentSkipListMap<Key, Entry> tokens = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    // Patients supprimés pendant la construction initiale, à ne pas réindexer
+    private final Set<Integer> removedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+
+    private final PatientRepository patientRepository;
+
+    public PatientSearchIndex(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    /**
+     * Construit l'index à partir de tous les patients en base, lus en flux.
+     *
+     * Les écritures reçues pendant la construction restent prioritaires : un
+     * patient déjà indexé ou supprimé entre-temps n'est pas remplacé par la
+     * version lue en base.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long start = System.nanoTime();
+        warmingUp = true;
+        try (Stream<Patient> patients = patientRepository.streamAll()) {
+            patients.forEach(patient -> {
+                if (!removedDuringWarmUp.contains(patient.getId())) {
+                    entries.computeIfAbsent(patient.getId(), id -> insert(summary(patient)));
+                }
+            });
+        } finally {
+            warmingUp = false;
+            removedDuringWarmUp.clear();
+        }
+        logger.info("Index de recherche construit : {} patients en {} ms",
+                entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Ajoute un patient à l'index ou remplace sa version précédente.
+     *
+     * @param patient le patient créé ou modifié
+     */
+    public void index(PatientDto patient) {
+        PatientSummaryDto summary = new PatientSummaryDto(patient.getId(), patient.getGender(),
+                patient.getLastname(), patient.getFirstname(), patient.getBirthDate());
+        entries.compute(patient.getId(), (id, previous) -> {
+            if (previous != null) {
+                delete(previous);
+            }
+            return insert(summary);
+        });
+    }
+
+    /**
+     * Retire un patient de l'index.
+     *
+     * @param id identifiant du patient supprimé
+     */
+    public void remove(int id) {
+        if (warmingUp) {
+            removedDuringWarmUp.add(id);
+        }
+        entries.computeIfPresent(id, (key, previous) -> {
+            delete(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Recherche les patients dont le nom ou le prénom commence par chacun des mots
+     * saisis, sans tenir compte des accents ni des majuscules.
+     *
+     * Seul le mot le plus long est lu dans l'index ; les autres filtrent les
+     * candidats. Les résultats sont triés par mot correspondant, puis par ID.
+     *
+     * @param query le texte saisi, par exemple "dup" ou "dupont je"
+     * @param limit nombre maximum de résultats
+     * @return au plus {@code limit} patients correspondants
+     */
+    public List<PatientSummaryDto> search(String query, int limit) {
+        List<String> terms = SearchText.tokens(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String scanned = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        ConcurrentNavigableMap<Key, Entry> candidates = tokens.subMap(
+                new Key(scanned, Integer.MIN_VALUE), true,
+                new Key(scanned + Character.MAX_VALUE, Integer.MIN_VALUE), false);
+
+        List<PatientSummaryDto> results = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        for (Entry entry : candidates.values()) {
+            if (seen.add(entry.summary().getId()) && entry.matchesAll(terms)) {
+                results.add(entry.summary());
+                if (results.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return le nombre de patients indexés
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry insert(PatientSummaryDto summary) {
+        List<String> words = new ArrayList<>(SearchText.tokens(summary.getLastname()));
+        SearchText.tokens(summary.getFirstname()).stream().filter(word -> !words.contains(word)).forEach(words::add);
+        Entry entry = new Entry(summary, List.copyOf(words));
+        for (String word : entry.words()) {
+            tokens.put(new Key(word, summary.getId()), entry);
+        }
+        return entry;
+    }
+
+    private void delete(Entry entry) {
+        for (String word : entry.words()) {
+            tokens.remove(new Key(word, entry.summary().getId()));
+        }
+    }
+
+    private static PatientSummaryDto summary(Patient patient) {
+        return new PatientSummaryDto(patient.getId(), patient.getGender(),
+                patient.getLastname(), patient.getFirstname(), patient.getBirthDate());
+    }
+
+    private record Key(String token, int id) {
+    }
+
+    private record Entry(PatientSummaryDto summary, List<String> words) {
+
+        boolean matchesAll(List<String> terms) {
+            for (String term : terms) {
+                if (words.stream().noneMatch(word -> word.startsWith(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -1,18 +1,34 @@
 package fr.medilabo.solutions.patient.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import fr.medilabo.solutions.patient.config.CacheConfig;
 import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientPageDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.exception.InvalidCursorException;
 import fr.medilabo.solutions.patient.exception.ResourceNotFoundException;
+import fr.medilabo.solutions.patient.exception.VersionConflictException;
 import fr.medilabo.solutions.patient.mapper.PatientMapper;
 import fr.medilabo.solutions.patient.model.Patient;
 import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+import fr.medilabo.solutions.patient.util.PatientCursor;
+import fr.medilabo.solutions.patient.util.PatientFields;
 
 
 /**
@@ -31,12 +47,19 @@ import fr.medilabo.solutions.patient.repository.PatientRepository;
 @Service
 public class PatientService implements CrudService<PatientDto> {
 
+    static final String PATIENTS_TABLE = "patients";
+
     private final PatientRepository patientRepository;
     private final PatientMapper patientMapper;
+    private final PatientSearchIndex searchIndex;
+    private final TableChangeCounterRepository changeCounterRepository;
 
-    public PatientService(PatientRepository patientRepository, PatientMapper patientMapper) {
+    public PatientService(PatientRepository patientRepository, PatientMapper patientMapper,
+            PatientSearchIndex searchIndex, TableChangeCounterRepository changeCounterRepository) {
         this.patientRepository = patientRepository;
         this.patientMapper = patientMapper;
+        this.searchIndex = searchIndex;
+        this.changeCounterRepository = changeCounterRepository;
     }
 
     /**
@@ -51,9 +74,13 @@ public class PatientService implements CrudService<PatientDto> {
      * @return Le PatientDto créé avec les informations mises à jour (comme l'ID attribué)
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS_CACHE, key = "#result.id")
     public PatientDto create(PatientDto patientDto) {
         Patient patient = patientMapper.toEntity(patientDto);
-        return patientMapper.toDto(patientRepository.save(patient));
+        PatientDto createdPatient = patientMapper.toDto(patientRepository.save(patient));
+        changeCounterRepository.increment(PATIENTS_TABLE);
+        searchIndex.index(createdPatient);
+        return createdPatient;
     }
 
     /**
@@ -72,45 +99,265 @@ public class PatientService implements CrudService<PatientDto> {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Lit le compteur de modifications de la table des patients.
+     *
+     * Il est incrémenté après chaque écriture, une fois celle-ci validée : lu avant
+     * la liste, il ne peut donc pas annoncer un état plus récent que celui des
+     * patients renvoyés.
+     *
+     * @return la valeur du compteur, ou vide si la table n'a pas de compteur
+     */
+    public Optional<Long> changeCount() {
+        return changeCounterRepository.findChangeCount(PATIENTS_TABLE);
+    }
+
+    /**
+     * Récupère tous les patients en ne lisant que les champs demandés.
+     *
+     * @param fields les champs à sélectionner, tels que renvoyés par
+     *               {@link PatientFields#parse(String)}
+     * @return une ligne par patient, champ vers valeur
+     */
+    public List<Map<String, Object>> findAll(List<String> fields) {
+        return patientRepository.findAllWithFields(fields);
+    }
+
+    /**
+     * Parcourt tous les patients en flux et transmet chacun, converti en DTO, au
+     * consommateur fourni.
+     *
+     * Contrairement à {@link #findAll()}, aucune liste n'est construite : un seul
+     * patient est en mémoire à la fois, ce qui permet d'exporter toute la table.
+     *
+     * @param consumer le consommateur appelé pour chaque patient, dans l'ordre des ID
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<PatientDto> consumer) {
+        try (Stream<Patient> patients = patientRepository.streamAll()) {
+            patients.map(patientMapper::toDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Récupère une page de patients triés par nom puis par identifiant, en
+     * pagination par curseur.
+     *
+     * Une ligne de plus que demandé est lue pour savoir s'il existe une page
+     * suivante sans requête de comptage.
+     *
+     * @param cursor curseur opaque renvoyé par la page précédente, ou {@code null}
+     *               pour la première page
+     * @param size   nombre de patients par page
+     * @return la page de patients et le curseur de la page suivante
+     * @throws InvalidCursorException si le curseur est mal formé
+     */
+    public PatientPageDto<PatientDto> findPage(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Patient> patients;
+        if (cursor == null || cursor.isBlank()) {
+            patients = patientRepository.findFirstPage(limit);
+        } else {
+            PatientCursor position = PatientCursor.decode(cursor);
+            patients = patientRepository.findPageAfter(position.lastname(), position.id(), limit);
+        }
+
+        boolean hasNext = patients.size() > size;
+        List<Patient> content = hasNext ? patients.subList(0, size) : patients;
+
+        PatientPageDto<PatientDto> page = new PatientPageDto<>();
+        page.setContent(content.stream().map(patientMapper::toDto).collect(Collectors.toList()));
+        page.setSize(size);
+        page.setNumberOfElements(content.size());
+        page.setFirst(cursor == null || cursor.isBlank());
+        page.setLast(!hasNext);
+        page.setEmpty(content.isEmpty());
+        if (hasNext) {
+            Patient lastPatient = content.get(content.size() - 1);
+            page.setNextCursor(new PatientCursor(lastPatient.getLastname(), lastPatient.getId()).encode());
+        }
+        return page;
+    }
+
+    /**
+     * Récupère une page de patients numérotée, dans l'ordre demandé.
+     *
+     * Seule la page demandée est lue et convertie, plus une requête de comptage
+     * pour le nombre total de pages : le coût d'une page ne dépend pas du nombre
+     * de patients.
+     *
+     * @param pageable numéro et taille de la page, et ordre des patients
+     * @return la page de patients avec le nombre total de patients et de pages
+     */
+    public PatientPageDto<PatientDto> findPage(Pageable pageable) {
+        return toPageDto(patientRepository.findAll(pageable).map(patientMapper::toDto));
+    }
+
+    /**
+     * Récupère une page de patients numérotée, dans l'ordre demandé, en ne lisant
+     * que les champs demandés.
+     *
+     * @param pageable numéro et taille de la page, et ordre des patients
+     * @param fields   les champs à sélectionner, tels que renvoyés par
+     *                 {@link PatientFields#parse(String)}
+     * @return la page de patients, champ vers valeur, avec le nombre total de
+     *         patients et de pages
+     */
+    public PatientPageDto<Map<String, Object>> findPage(Pageable pageable, List<String> fields) {
+        return toPageDto(patientRepository.findPageWithFields(fields, pageable));
+    }
+
+    private static <T> PatientPageDto<T> toPageDto(Page<T> patients) {
+        PatientPageDto<T> page = new PatientPageDto<>();
+        page.setContent(patients.getContent());
+        page.setNumber(patients.getNumber());
+        page.setSize(patients.getSize());
+        page.setTotalPages(patients.getTotalPages());
+        page.setTotalElements(patients.getTotalElements());
+        page.setNumberOfElements(patients.getNumberOfElements());
+        page.setFirst(patients.isFirst());
+        page.setLast(patients.isLast());
+        page.setEmpty(patients.isEmpty());
+        return page;
+    }
+
+    /**
+     * Recherche les patients dont le nom ou le prénom commence par les mots saisis.
+     *
+     * La recherche est faite dans l'index en mémoire, sans accès à la base.
+     *
+     * @param query le texte saisi
+     * @param limit nombre maximum de résultats
+     * @return les patients correspondants
+     */
+    public List<PatientSummaryDto> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
     /**
      * Récupère un patient par son ID.
      *
+     * Le résultat est mis en cache ; en cas d'absence, un seul appel concurrent
+     * interroge la base pour un même ID.
+     *
      * @param id l'identifiant unique du patient à récupérer
      * @return l'objet PatientDto contenant les informations du patient
      * @throws ResourceNotFoundException si aucun patient n'est trouvé avec l'ID donné
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.PATIENTS_CACHE, key = "#id", sync = true)
     public PatientDto findById(int id) {
         return patientMapper.toDto(patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id)));
     }
 
+    /**
+     * Récupère un patient en ne lisant que les champs demandés.
+     *
+     * @param id     l'identifiant unique du patient à récupérer
+     * @param fields les champs à sélectionner, tels que renvoyés par
+     *               {@link PatientFields#parse(String)}
+     * @return le patient, champ vers valeur
+     * @throws ResourceNotFoundException si aucun patient n'est trouvé avec l'ID donné
+     */
+    public Map<String, Object> findById(int id, List<String> fields) {
+        return patientRepository.findByIdWithFields(id, fields)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+    }
+
     /**
      * Met à jour une entité Patient existante avec les informations fournies dans
      * PatientDto.
      *
+     * La mise à jour est faite en une seule requête UPDATE. Si le DTO porte une
+     * version, la mise à jour n'a lieu que si le patient est encore dans cette
+     * version ; sinon elle est inconditionnelle et la nouvelle version est relue
+     * dans la même transaction, avant qu'une autre écriture ne puisse la changer.
+     * L'index de recherche n'est mis à jour qu'après la validation.
+     *
      * @param patientDto L'objet de transfert de données contenant les informations
      *                   mises à jour du patient
-     * @return L'objet de transfert de données représentant le patient mis à jour
-     * @throws IllegalArgumentException si le patient n'est pas trouvé
-     * @throws DataAccessException      si une erreur survient pendant l'opération
-     *                                  en base de données
+     * @return L'objet de transfert de données représentant le patient mis à jour,
+     *         avec sa nouvelle version
+     * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws VersionConflictException  si le patient a changé de version
+     * @throws DataAccessException       si une erreur survient pendant l'opération
+     *                                   en base de données
      */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS_CACHE, key = "#patientDto.id")
     public PatientDto update(PatientDto patientDto) {
         Patient patient = patientMapper.toEntity(patientDto);
-        return patientMapper.toDto(patientRepository.save(patient));
+        Long version = patientDto.getVersion();
+        int updated = version == null
+                ? patientRepository.updateIgnoringVersion(patient)
+                : patientRepository.updateIfVersion(patient, version);
+        if (updated == 0) {
+            throw writeFailure(patientDto.getId());
+        }
+        changeCounterRepository.increment(PATIENTS_TABLE);
+
+        PatientDto updatedPatient = patientMapper.toDto(patient);
+        if (version != null) {
+            updatedPatient.setVersion(version + 1);
+        } else {
+            updatedPatient.setVersion(patientRepository.findVersionById(patientDto.getId()).orElse(null));
+        }
+        AfterCommit.run(() -> searchIndex.index(updatedPatient));
+        return updatedPatient;
     }
 
     /**
      * Supprime un patient de la base de données.
      *
      * @param patientDto l'objet de transfert de données du patient à supprimer
+     * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws VersionConflictException  si le patient a changé de version
      */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS_CACHE, key = "#patientDto.id")
     public void delete(PatientDto patientDto) {
-        Patient patient = patientMapper.toEntity(patientDto);
-        patientRepository.delete(patient);
+        deleteById(patientDto.getId(), patientDto.getVersion());
+    }
+
+    /**
+     * Supprime un patient en une seule requête DELETE, conditionnée par sa version
+     * si elle est fournie.
+     *
+     * La suppression et l'incrémentation du compteur de modifications sont faites
+     * dans la même transaction : l'ETag de la liste change forcément avec elle.
+     * Le patient n'est retiré de l'index de recherche qu'après la validation.
+     *
+     * @param id      identifiant du patient à supprimer
+     * @param version la version lue par le client, ou {@code null} pour supprimer
+     *                sans condition
+     * @throws ResourceNotFoundException si le patient n'est pas trouvé
+     * @throws VersionConflictException  si le patient a changé de version
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS_CACHE, key = "#id")
+    public void deleteById(int id, Long version) {
+        int deleted = version == null
+                ? patientRepository.deleteIgnoringVersion(id)
+                : patientRepository.deleteIfVersion(id, version);
+        if (deleted == 0) {
+            throw writeFailure(id);
+        }
+        changeCounterRepository.increment(PATIENTS_TABLE);
+        AfterCommit.run(() -> searchIndex.remove(id));
+    }
+
+    /**
+     * Détermine pourquoi une écriture n'a modifié aucune ligne. Cette requête
+     * supplémentaire n'a lieu que dans le cas d'échec.
+     */
+    private RuntimeException writeFailure(int id) {
+        if (patientRepository.existsById(id)) {
+            return new VersionConflictException("Patient " + id + " has been modified by another request");
+        }
+        return new ResourceNotFoundException("Patient not found with id: " + id);
     }
 
 }
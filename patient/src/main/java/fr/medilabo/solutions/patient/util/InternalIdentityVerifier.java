@@ -0,0 +1,93 @@
+package fr.medilabo.solutions.patient.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Vérifie l'en-tête d'identité interne signé par la gateway après validation du
+ * cookie JWT.
+ *
+ * Format : {@code base64url(sujet).expiration.base64url(HMAC-SHA256(base64url(sujet).expiration))},
+ * l'expiration étant en secondes epoch. La vérification se limite à un HMAC et à
+ * la comparaison de l'expiration, là où un JWT demande une analyse JSON complète.
+ */
+@Component
+public class InternalIdentityVerifier {
+
+    /** En-tête portant l'identité vérifiée par la gateway. */
+    public static final String HEADER = "X-Internal-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Mac prototype;
+    private final Clock clock;
+
+    @Autowired
+    public InternalIdentityVerifier(@Value("${internal.identity.secret}") String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    InternalIdentityVerifier(String secret, Clock clock) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Impossible d'initialiser " + ALGORITHM, e);
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Vérifie la signature et l'expiration de l'en-tête.
+     *
+     * @param header la valeur de l'en-tête {@link #HEADER}
+     * @return le nom d'utilisateur, ou vide si l'en-tête est mal formé, mal signé ou expiré
+     */
+    public Optional<String> verify(String header) {
+        int signatureStart = header.lastIndexOf('.');
+        int expirationStart = header.lastIndexOf('.', signatureStart - 1);
+        if (expirationStart <= 0) {
+            return Optional.empty();
+        }
+        try {
+            String payload = header.substring(0, signatureStart);
+            byte[] expected = mac().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            byte[] signature = Base64.getUrlDecoder().decode(header.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(expected, signature)) {
+                return Optional.empty();
+            }
+            long expiresAt = Long.parseLong(header.substring(expirationStart + 1, signatureStart));
+            if (expiresAt <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            byte[] subject = Base64.getUrlDecoder().decode(header.substring(0, expirationStart));
+            return Optional.of(new String(subject, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Une instance de {@link Mac} n'est pas thread-safe : chaque vérification utilise
+     * une copie de l'instance déjà initialisée avec la clé.
+     */
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " ne peut pas être copié", e);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package fr.medilabo.solutions.patient.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import fr.medilabo.solutions.patient.exception.InvalidCursorException;
+
+/**
+ * Position of a patient in the (lastname, id) ordering used by keyset pagination.
+ *
+ * The cursor is exchanged with clients as an opaque URL-safe Base64 string so that
+ * its content can evolve without breaking callers.
+ *
+ * @param lastname lastname of the last patient returned
+ * @param id       identifier of the last patient returned
+ */
+public record PatientCursor(String lastname, int id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Encodes this position as an opaque cursor.
+     *
+     * @return String the URL-safe cursor
+     */
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + lastname;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor
+     * @return PatientCursor the decoded position
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    public static PatientCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new PatientCursor(raw.substring(separator + 1), Integer.parseInt(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.medilabo.solutions.patient.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import fr.medilabo.solutions.patient.exception.InvalidFieldException;
+
+/**
+ * Parsing of the {@code fields} query parameter used for sparse fieldsets.
+ *
+ * Field names are those of {@code PatientDto}, which are also the attribute names
+ * of the {@code Patient} entity, so a selection can be turned directly into a
+ * JPA projection.
+ */
+public final class PatientFields {
+
+    /**
+     * Fields displayed in patient lists.
+     */
+    public static final List<String> SUMMARY = List.of("id", "gender", "lastname", "firstname", "birthDate");
+
+    private static final Set<String> ALLOWED = Set.of("id", "lastname", "firstname", "birthDate", "gender",
+            "address", "phoneNumber", "version");
+
+    private PatientFields() {
+    }
+
+    /**
+     * Parses a comma-separated list of field names. The identifier is always
+     * selected, first, so that clients can link each row to its patient.
+     *
+     * @param fields the raw parameter, e.g. {@code "lastname,firstname"}
+     * @return List the distinct field names, starting with {@code id}
+     * @throws InvalidFieldException if a field is unknown
+     */
+    public static List<String> parse(String fields) {
+        List<String> selection = new ArrayList<>();
+        selection.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || selection.contains(name)) {
+                continue;
+            }
+            if (!ALLOWED.contains(name)) {
+                throw new InvalidFieldException("Unknown field: " + name);
+            }
+            selection.add(name);
+        }
+        return selection;
+    }
+
+    /**
+     * Parses a {@code sort} query parameter such as {@code "lastname,desc"}. Only the
+     * fields displayed in patient lists can be sorted on; the identifier is always
+     * added last so that the order is stable from one page to the next.
+     *
+     * @param sort the raw parameter, {@code field} or {@code field,asc|desc}
+     * @return Sort the corresponding sort
+     * @throws InvalidFieldException if the field or the direction is unknown
+     */
+    public static Sort parseSort(String sort) {
+        String[] parts = sort.split(",");
+        String name = parts[0].trim();
+        if (!SUMMARY.contains(name) || parts.length > 2) {
+            throw new InvalidFieldException("Unknown sort: " + sort);
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new InvalidFieldException("Unknown sort direction: " + sort));
+        }
+        Sort order = Sort.by(direction, name);
+        return "id".equals(name) ? order : order.and(Sort.by("id"));
+    }
+
+}
@@ -0,0 +1,54 @@
+package fr.medilabo.solutions.patient.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization used by the patient name search.
+ *
+ * Folding removes case and accents and expands the French ligatures, so that
+ * "Lefèvre", "LEFEVRE" and "lefevre" all produce the same tokens.
+ */
+public final class SearchText {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchText() {
+    }
+
+    /**
+     * Folds a text to lowercase ASCII-like form without diacritics.
+     *
+     * @param value the text to fold, may be null
+     * @return String the folded text, empty for null
+     */
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace("œ", "oe")
+                .replace("æ", "ae")
+                .replace("ß", "ss");
+    }
+
+    /**
+     * Splits a text into distinct folded words; hyphens, apostrophes and spaces
+     * separate words ("Saint-Éxupéry" gives "saint" and "exupery").
+     *
+     * @param value the text to split, may be null
+     * @return List the folded words, in order of first appearance
+     */
+    public static List<String> tokens(String value) {
+        return Arrays.stream(SEPARATORS.split(fold(value)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+}
@@ -1,52 +1,68 @@
 
 INSERT INTO
     patients (
+        id,
         firstname,
         lastname,
         birth_date,
         gender,
         address,
         phone_number,
+        version,
         created_at,
         updated_at
     )
 VALUES (
+        1,
         'TestNone',
         'Test',
         '1966-12-31',
         'F',
         '1 Brookside St',
         '100-222-3333',
+        0,
         NOW(),
         NOW()
     ),
     (
+        2,
         'TestBorderline',
         'Test',
         '1945-06-24',
         'M',
         '2 High St',
         '200-333-4444',
+        0,
         NOW(),
         NOW()
     ),
     (
+        3,
         'TestInDanger',
         'Test',
         '2004-06-18',
         'M',
         '3 Club Road',
         '300-444-5555',
+        0,
         NOW(),
         NOW()
     ),
     (
+        4,
         'TestEarlyOnset',
         'Test',
         '2002-06-28',
         'F',
         '4 Valley Dr',
         '400-555-6666',
+        0,
         NOW(),
         NOW()
-    );
\ No newline at end of file
+    );
+
+-- Les ID des patients de test sont fixés : la séquence reprend juste après
+ALTER SEQUENCE patients_seq RESTART WITH 5;
+
+-- Compteur de modifications de la table patients (ETag des listes)
+INSERT INTO table_change_counters (table_name, change_count) VALUES ('patients', 0);
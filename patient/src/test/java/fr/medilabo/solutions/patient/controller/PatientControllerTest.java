@@ -1,37 +1,59 @@
 package fr.medilabo.solutions.patient.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto;
 import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientPageDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.exception.InvalidCursorException;
 import fr.medilabo.solutions.patient.exception.ResourceNotFoundException;
+import fr.medilabo.solutions.patient.exception.VersionConflictException;
+import fr.medilabo.solutions.patient.service.PatientBatchService;
 import fr.medilabo.solutions.patient.service.PatientService;
+import fr.medilabo.solutions.patient.util.InternalIdentityVerifier;
+import fr.medilabo.solutions.patient.util.JwtUtil;
 
 /**
  * Classe de tests pour PatientController.
@@ -39,6 +61,7 @@ import fr.medilabo.solutions.patient.service.PatientService;
  * pour la gestion des patients.
  */
 @WebMvcTest(PatientController.class)
+@AutoConfigureMockMvc(addFilters = false)
 @DisplayName("Patient Controller Tests")
 class PatientControllerTest {
 
@@ -54,6 +77,24 @@ class PatientControllerTest {
     @MockitoBean
     private PatientService patientService;
 
+    /**
+     * Service mocké pour l'import de patients par lot
+     */
+    @MockitoBean
+    private PatientBatchService patientBatchService;
+
+    /**
+     * Utilitaire JWT mocké, requis par le filtre d'authentification
+     */
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    /**
+     * Vérificateur mocké de l'en-tête d'identité de la gateway, requis par le filtre d'authentification
+     */
+    @MockitoBean
+    private InternalIdentityVerifier identityVerifier;
+
     /**
      * Mapper pour la conversion des objets en JSON et vice-versa
      */
@@ -142,6 +183,89 @@ class PatientControllerTest {
                 .andExpect(jsonPath("$.lastname").value("Dupont"));
     }
 
+    /**
+     * Teste l'ETag d'un patient.
+     * Vérifie que la réponse porte un ETag formé de l'ID et de la version.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner un ETag formé de l'ID et de la version du patient")
+    void obtenirPatient_DevraitRetournerEtag() throws Exception {
+        // Given
+        patientDto.setVersion(3L);
+        when(patientService.findById(1)).thenReturn(patientDto);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    /**
+     * Teste la lecture conditionnelle d'un patient.
+     * Vérifie qu'un If-None-Match à jour donne un 304 sans corps.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 304 quand le patient n'a pas changé")
+    void obtenirPatient_AvecEtagAJour_DevraitRetourner304() throws Exception {
+        // Given
+        patientDto.setVersion(3L);
+        when(patientService.findById(1)).thenReturn(patientDto);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Teste la lecture conditionnelle de la liste des patients.
+     * Vérifie qu'un If-None-Match égal au compteur de modifications donne un 304
+     * sans lire les patients.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 304 sans lire les patients quand la liste n'a pas changé")
+    void obtenirTousLesPatients_AvecEtagAJour_DevraitRetourner304() throws Exception {
+        // Given
+        when(patientService.changeCount()).thenReturn(Optional.of(12L));
+
+        // When & Then
+        mockMvc.perform(get("/api/patient").header(HttpHeaders.IF_NONE_MATCH, "\"patients-12\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/patient").param("fields", "lastname")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"patients-12\""))
+                .andExpect(status().isNotModified());
+        verify(patientService, never()).findAll();
+        verify(patientService, never()).findAll(any());
+    }
+
+    /**
+     * Teste l'ETag de la liste des patients.
+     * Vérifie qu'un ETag périmé donne la liste complète avec le nouvel ETag.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner la liste et le nouvel ETag quand la liste a changé")
+    void obtenirTousLesPatients_AvecEtagPerime_DevraitRetournerListe() throws Exception {
+        // Given
+        when(patientService.changeCount()).thenReturn(Optional.of(13L));
+        when(patientService.findAll()).thenReturn(listePatients);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient").header(HttpHeaders.IF_NONE_MATCH, "\"patients-12\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"patients-13\""))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     /**
      * Teste la gestion des erreurs pour un ID de patient invalide.
      * Vérifie que l'endpoint retourne une erreur 404 quand le patient n'existe pas.
@@ -242,8 +366,8 @@ class PatientControllerTest {
         updatedPatient.setGender("M");
         updatedPatient.setAddress("123 Updated St");
         updatedPatient.setPhoneNumber("0123456789");
+        updatedPatient.setVersion(2L);
 
-        when(patientService.findById(1)).thenReturn(patientDto);
         when(patientService.update(any(PatientDto.class))).thenReturn(updatedPatient);
 
         // When & Then
@@ -254,7 +378,8 @@ class PatientControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.firstname").value("Jean Updated"))
-                .andExpect(jsonPath("$.address").value("123 Updated St"));
+                .andExpect(jsonPath("$.address").value("123 Updated St"))
+                .andExpect(header().string("ETag", "\"1-2\""));
     }
 
     /**
@@ -267,7 +392,7 @@ class PatientControllerTest {
     @DisplayName("Devrait retourner 404 lors de la mise à jour d'un patient inexistant")
     void mettreAJourPatient_AvecIdInvalide_DevraitRetourner404() throws Exception {
         // Given
-        when(patientService.findById(999)).thenThrow(new ResourceNotFoundException("Patient not found with id: 999"));
+        when(patientService.update(any(PatientDto.class))).thenThrow(new ResourceNotFoundException("Patient not found with id: 999"));
 
         // When & Then
         mockMvc.perform(put("/api/patient/999")
@@ -276,6 +401,28 @@ class PatientControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Teste la mise à jour d'un patient modifié entre-temps.
+     * Vérifie que l'endpoint retourne une erreur 409 quand la version ne correspond plus.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 409 lors de la mise à jour d'un patient dans une version périmée")
+    void mettreAJourPatient_AvecVersionPerimee_DevraitRetourner409() throws Exception {
+        // Given
+        patientDto.setVersion(3L);
+        when(patientService.update(any(PatientDto.class)))
+                .thenThrow(new VersionConflictException("Patient 1 has been modified by another request"));
+
+        // When & Then
+        mockMvc.perform(put("/api/patient/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patientDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflit de version"));
+    }
+
     /**
      * Teste la suppression d'un patient existant.
      * Vérifie que l'endpoint supprime correctement le patient.
@@ -286,12 +433,12 @@ class PatientControllerTest {
     @DisplayName("Devrait supprimer le patient avec succès")
     void supprimerPatient_AvecIdValide_DevraitSupprimerPatient() throws Exception {
         // Given
-        when(patientService.findById(1)).thenReturn(patientDto);
-        doNothing().when(patientService).delete(any(PatientDto.class));
+        doNothing().when(patientService).deleteById(1, 2L);
 
         // When & Then
-        mockMvc.perform(delete("/api/patient/1"))
+        mockMvc.perform(delete("/api/patient/1").param("version", "2"))
                 .andExpect(status().isNoContent());
+        verify(patientService).deleteById(1, 2L);
     }
 
     /**
@@ -304,10 +451,265 @@ class PatientControllerTest {
     @DisplayName("Devrait retourner 404 lors de la suppression d'un patient inexistant")
     void supprimerPatient_AvecIdInvalide_DevraitRetourner404() throws Exception {
         // Given
-        when(patientService.findById(999)).thenThrow(new ResourceNotFoundException("Patient not found with id: 999"));
+        doThrow(new ResourceNotFoundException("Patient not found with id: 999"))
+                .when(patientService).deleteById(999, null);
 
         // When & Then
         mockMvc.perform(delete("/api/patient/999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    /**
+     * Teste la récupération de la première page de patients par curseur.
+     * Vérifie que la page et le curseur suivant sont renvoyés.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner la première page de patients avec le curseur suivant")
+    void parcourirPatients_SansCurseur_DevraitRetournerPremierePage() throws Exception {
+        // Given
+        PatientPageDto<PatientDto> page = new PatientPageDto<>();
+        page.setContent(listePatients);
+        page.setSize(2);
+        page.setNumberOfElements(2);
+        page.setFirst(true);
+        page.setNextCursor("MjpNYXJ0aW4");
+
+        when(patientService.findPage(null, 2)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/scroll").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].firstname").value("Jean"))
+                .andExpect(jsonPath("$.first").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("MjpNYXJ0aW4"));
+    }
+
+    /**
+     * Teste que la taille de page demandée est bornée.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait borner la taille de page demandée")
+    void parcourirPatients_AvecTailleExcessive_DevraitBornerTaille() throws Exception {
+        // Given
+        PatientPageDto<PatientDto> page = new PatientPageDto<>();
+        page.setContent(listePatients);
+        when(patientService.findPage("MjpNYXJ0aW4", 100)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/scroll")
+                        .param("cursor", "MjpNYXJ0aW4")
+                        .param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+    }
+
+    /**
+     * Teste la gestion d'un curseur invalide.
+     * Vérifie que l'endpoint retourne une erreur 400.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 400 pour un curseur invalide")
+    void parcourirPatients_AvecCurseurInvalide_DevraitRetourner400() throws Exception {
+        // Given
+        when(patientService.findPage("abc", 20)).thenThrow(new InvalidCursorException("Invalid cursor: abc"));
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/scroll").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Curseur invalide"));
+    }
+
+    /**
+     * Teste la récupération d'une page numérotée, triée par nom décroissant.
+     * Vérifie que le tri demandé est complété par l'identifiant.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner une page numérotée triée selon le paramètre sort")
+    void paginerPatients_AvecTri_DevraitRetournerPage() throws Exception {
+        // Given
+        PatientPageDto<PatientDto> page = new PatientPageDto<>();
+        page.setContent(listePatients);
+        page.setNumber(1);
+        page.setSize(2);
+        page.setTotalPages(3);
+        page.setTotalElements(6);
+        Pageable attendu = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "lastname").and(Sort.by("id")));
+        when(patientService.findPage(attendu)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/page")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("sort", "lastname,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.number").value(1))
+                .andExpect(jsonPath("$.totalPages").value(3));
+    }
+
+    /**
+     * Teste la récupération d'une page numérotée limitée aux champs demandés.
+     * Vérifie que seuls ces champs sont lus et renvoyés.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner une page numérotée limitée aux champs demandés")
+    void paginerPatients_AvecChamps_DevraitUtiliserProjection() throws Exception {
+        // Given
+        PatientPageDto<Map<String, Object>> page = new PatientPageDto<>();
+        page.setContent(List.of(Map.of("id", 1, "lastname", "Dupont")));
+        page.setTotalPages(1);
+        Pageable attendu = PageRequest.of(0, 20, Sort.by("lastname").and(Sort.by("id")));
+        when(patientService.findPage(attendu, List.of("id", "lastname"))).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/page").param("fields", "lastname"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lastname").value("Dupont"))
+                .andExpect(jsonPath("$.content[0].address").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").value(1));
+        verify(patientService, never()).findPage(any(Pageable.class));
+    }
+
+    /**
+     * Teste le refus d'un champ de tri inconnu.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 400 pour un champ de tri inconnu")
+    void paginerPatients_AvecTriInconnu_DevraitRetourner400() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/patient/page").param("sort", "address,asc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Champ invalide"));
+        verify(patientService, never()).findPage(any(Pageable.class));
+    }
+
+    /**
+     * Teste l'export NDJSON de tous les patients.
+     * Vérifie que chaque patient est écrit sur sa propre ligne.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait exporter les patients au format NDJSON")
+    @SuppressWarnings("unchecked")
+    void exporterPatients_DevraitEcrireUnPatientParLigne() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<PatientDto> consumer = invocation.getArgument(0);
+            listePatients.forEach(consumer);
+            return null;
+        }).when(patientService).exportAll(any(Consumer.class));
+
+        // When
+        String body = mockMvc.perform(get("/api/patient/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readValue(lines[0], PatientDto.class).getId());
+        assertEquals("Marie", objectMapper.readValue(lines[1], PatientDto.class).getFirstname());
+        assertTrue(body.endsWith("\n"));
+    }
+
+    /**
+     * Teste l'import de patients par lot.
+     * Vérifie que l'endpoint renvoie un résultat par patient, dans l'ordre reçu.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner un résultat par patient importé")
+    void importerPatients_DevraitRetournerUnResultatParPatient() throws Exception {
+        // Given
+        when(patientBatchService.upsertAll(any())).thenReturn(List.of(
+                new PatientBatchResultDto(0, PatientBatchResultDto.Status.UPDATED, 1, List.of()),
+                new PatientBatchResultDto(1, PatientBatchResultDto.Status.NOT_FOUND, 2,
+                        List.of("Patient not found with id: 2"))));
+
+        // When & Then
+        mockMvc.perform(post("/api/patient/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listePatients)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[1].errors[0]").value("Patient not found with id: 2"));
+    }
+
+    /**
+     * Teste la recherche de patients par préfixe.
+     * Vérifie que la limite demandée est bornée et que les résultats sont renvoyés.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner les patients correspondant à la recherche")
+    void rechercherPatients_DevraitRetournerLesCorrespondances() throws Exception {
+        // Given
+        when(patientService.search("dup", 50)).thenReturn(List.of(
+                new PatientSummaryDto(1, "M", "Dupont", "Jean", LocalDate.of(1990, 1, 1))));
+
+        // When & Then
+        mockMvc.perform(get("/api/patient/search").param("q", "dup").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastname").value("Dupont"))
+                .andExpect(jsonPath("$[0].address").doesNotExist());
+    }
+
+    /**
+     * Teste la récupération de la liste des patients limitée à certains champs.
+     * Vérifie que les champs répétés sont acceptés et que l'identifiant est toujours sélectionné.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner uniquement les champs demandés")
+    void obtenirTousLesPatients_AvecChamps_DevraitRetournerLesChampsDemandes() throws Exception {
+        // Given
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("lastname", "Dupont");
+        when(patientService.findAll(List.of("id", "lastname", "firstname"))).thenReturn(List.of(row));
+
+        // When & Then
+        mockMvc.perform(get("/api/patient").param("fields", "lastname", "firstname"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].lastname").value("Dupont"))
+                .andExpect(jsonPath("$[0].address").doesNotExist());
+    }
+
+    /**
+     * Teste la récupération d'un patient avec un champ inconnu.
+     * Vérifie que l'endpoint retourne une erreur 400.
+     *
+     * @throws Exception si une erreur survient pendant l'exécution du test
+     */
+    @Test
+    @DisplayName("Devrait retourner 400 quand un champ demandé n'existe pas")
+    void obtenirPatient_AvecChampInconnu_DevraitRetourner400() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/patient/1").param("fields", "lastname,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Champ invalide"));
+    }
+}
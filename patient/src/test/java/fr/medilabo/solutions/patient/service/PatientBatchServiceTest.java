@@ -0,0 +1,174 @@
+package fr.medilabo.solutions.patient.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import fr.medilabo.solutions.patient.config.CacheConfig;
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto;
+import fr.medilabo.solutions.patient.dto.PatientBatchResultDto.Status;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.mapper.PatientMapperImpl;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Patient Batch Service Tests")
+class PatientBatchServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TableChangeCounterRepository changeCounterRepository;
+
+    private final PatientMapper patientMapper = new PatientMapperImpl();
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PATIENTS_CACHE);
+
+    private PatientSearchIndex searchIndex;
+
+    private PatientBatchService patientBatchService;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new PatientSearchIndex(patientRepository);
+        patientBatchService = new PatientBatchService(patientRepository, patientMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cacheManager, searchIndex, changeCounterRepository, 2);
+        ReflectionTestUtils.setField(patientBatchService, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("Should create new patients in chunks and return their ids")
+    void upsertAll_WithNewPatients_ShouldPersistInChunks() {
+        // Given
+        AtomicInteger sequence = new AtomicInteger(100);
+        doAnswer(invocation -> {
+            invocation.<Patient>getArgument(0).setId(sequence.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(Patient.class));
+        List<PatientDto> patients = List.of(patientDto(0, "Dupont"), patientDto(0, "Martin"), patientDto(0, "Durand"));
+
+        // When
+        List<PatientBatchResultDto> results = patientBatchService.upsertAll(patients);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(Status.CREATED, results.get(0).getStatus());
+        assertEquals(100, results.get(0).getId());
+        assertEquals(102, results.get(2).getId());
+        assertEquals(101, searchIndex.search("mart", 10).get(0).getId());
+        verify(entityManager, times(3)).persist(any(Patient.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(changeCounterRepository, times(1)).increment("patients");
+    }
+
+    @Test
+    @DisplayName("Should update existing patients, evict them from the cache and report missing ones")
+    void upsertAll_WithExistingAndMissingIds_ShouldUpdateAndReportNotFound() {
+        // Given
+        Patient existing = new Patient();
+        existing.setId(1);
+        existing.setLastname("Ancien");
+        when(patientRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+        cacheManager.getCache(CacheConfig.PATIENTS_CACHE).put(1, patientDto(1, "Ancien"));
+        List<PatientDto> patients = List.of(patientDto(42, "Inconnu"), patientDto(1, "Nouveau"));
+
+        // When
+        List<PatientBatchResultDto> results = patientBatchService.upsertAll(patients);
+
+        // Then
+        assertEquals(Status.NOT_FOUND, results.get(0).getStatus());
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(Status.UPDATED, results.get(1).getStatus());
+        assertEquals("Nouveau", existing.getLastname());
+        assertNull(cacheManager.getCache(CacheConfig.PATIENTS_CACHE).get(1));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("Should report a conflict when the patient has another version")
+    void upsertAll_WithStaleVersion_ShouldReportConflict() {
+        // Given
+        Patient existing = new Patient();
+        existing.setId(1);
+        existing.setVersion(5);
+        when(patientRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+        PatientDto stale = patientDto(1, "Nouveau");
+        stale.setVersion(4L);
+
+        // When
+        List<PatientBatchResultDto> results = patientBatchService.upsertAll(List.of(stale));
+
+        // Then
+        assertEquals(Status.CONFLICT, results.get(0).getStatus());
+        assertNull(existing.getLastname());
+        verify(changeCounterRepository, never()).increment("patients");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid patients without blocking the rest of the batch")
+    void upsertAll_WithInvalidPatient_ShouldReportErrorsAndWriteOthers() {
+        // Given
+        PatientDto invalid = patientDto(0, "D");
+        invalid.setGender("X");
+        List<PatientDto> patients = new ArrayList<>();
+        patients.add(invalid);
+        patients.add(null);
+        patients.add(patientDto(0, "Dupont"));
+
+        // When
+        List<PatientBatchResultDto> results = patientBatchService.upsertAll(patients);
+
+        // Then
+        assertEquals(Status.INVALID, results.get(0).getStatus());
+        assertFalse(results.get(0).getErrors().isEmpty());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertEquals(Status.CREATED, results.get(2).getStatus());
+        verify(entityManager, times(1)).persist(any(Patient.class));
+    }
+
+    private PatientDto patientDto(int id, String lastname) {
+        PatientDto patientDto = new PatientDto();
+        patientDto.setId(id);
+        patientDto.setLastname(lastname);
+        patientDto.setFirstname("Jean");
+        patientDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        patientDto.setGender("M");
+        patientDto.setAddress("123 Rue Principale");
+        patientDto.setPhoneNumber("0123456789");
+        return patientDto;
+    }
+
+}
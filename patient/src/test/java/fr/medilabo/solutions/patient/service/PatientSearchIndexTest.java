@@ -0,0 +1,120 @@
+package fr.medilabo.solutions.patient.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientSummaryDto;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Patient Search Index Tests")
+class PatientSearchIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private PatientSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new PatientSearchIndex(patientRepository);
+        searchIndex.index(patientDto(1, "Lefèvre", "Hélène"));
+        searchIndex.index(patientDto(2, "Dupont", "Jean"));
+        searchIndex.index(patientDto(3, "Dupond", "Jean-Œdipe"));
+        searchIndex.index(patientDto(4, "Saint-Exupéry", "Antoine"));
+    }
+
+    @Test
+    @DisplayName("Should match prefixes regardless of case and accents")
+    void search_WithFoldedPrefix_ShouldMatchAccentedNames() {
+        // When
+        List<PatientSummaryDto> byLastname = searchIndex.search("LEFE", 10);
+        List<PatientSummaryDto> byFirstname = searchIndex.search("helé", 10);
+
+        // Then
+        assertEquals(List.of(1), ids(byLastname));
+        assertEquals(List.of(1), ids(byFirstname));
+    }
+
+    @Test
+    @DisplayName("Should require every word of the query to match")
+    void search_WithSeveralWords_ShouldMatchAllOfThem() {
+        // When & Then
+        assertEquals(List.of(2, 3), ids(searchIndex.search("dup jean", 10)));
+        assertEquals(List.of(3), ids(searchIndex.search("dup oedi", 10)));
+        assertEquals(List.of(4), ids(searchIndex.search("exup", 10)));
+        assertTrue(searchIndex.search("dup antoine", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return at most the requested number of patients")
+    void search_WithLimit_ShouldTruncateResults() {
+        // When & Then
+        assertEquals(1, searchIndex.search("dup", 1).size());
+        assertTrue(searchIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should replace a patient on update and forget it on delete")
+    void indexAndRemove_ShouldKeepIndexInSync() {
+        // When
+        searchIndex.index(patientDto(2, "Martin", "Jean"));
+        searchIndex.remove(3);
+
+        // Then
+        assertTrue(searchIndex.search("dup", 10).isEmpty());
+        assertEquals(List.of(2), ids(searchIndex.search("mart", 10)));
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("Should build the index from the database without overriding newer writes")
+    void warmUp_ShouldIndexPatientsNotAlreadyIndexed() {
+        // Given
+        Patient stale = new Patient();
+        stale.setId(2);
+        stale.setLastname("Ancien");
+        stale.setFirstname("Nom");
+        Patient fresh = new Patient();
+        fresh.setId(5);
+        fresh.setLastname("Bernard");
+        fresh.setFirstname("Paul");
+        when(patientRepository.streamAll()).thenReturn(Stream.of(stale, fresh));
+
+        // When
+        searchIndex.warmUp();
+
+        // Then
+        assertTrue(searchIndex.search("ancien", 10).isEmpty());
+        assertEquals(List.of(5), ids(searchIndex.search("bern", 10)));
+    }
+
+    private List<Integer> ids(List<PatientSummaryDto> patients) {
+        return patients.stream().map(PatientSummaryDto::getId).toList();
+    }
+
+    private PatientDto patientDto(int id, String lastname, String firstname) {
+        PatientDto patientDto = new PatientDto();
+        patientDto.setId(id);
+        patientDto.setLastname(lastname);
+        patientDto.setFirstname(firstname);
+        patientDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        patientDto.setGender("M");
+        return patientDto;
+    }
+
+}
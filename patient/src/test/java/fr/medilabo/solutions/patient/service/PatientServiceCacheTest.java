@@ -0,0 +1,132 @@
+package fr.medilabo.solutions.patient.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import fr.medilabo.solutions.patient.config.CacheConfig;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+
+@SpringJUnitConfig({ CacheConfig.class, PatientService.class })
+@ImportAutoConfiguration({ AopAutoConfiguration.class, CacheAutoConfiguration.class })
+@TestPropertySource(properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=" + CacheConfig.PATIENTS_CACHE })
+@DisplayName("Patient Service Cache Tests")
+class PatientServiceCacheTest {
+
+    @MockitoBean
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private PatientMapper patientMapper;
+
+    @MockitoBean
+    private PatientSearchIndex searchIndex;
+
+    @MockitoBean
+    private TableChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Patient patient;
+    private PatientDto patientDto;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PATIENTS_CACHE).clear();
+
+        patient = new Patient();
+        patient.setId(1);
+        patient.setLastname("Dupont");
+        patientDto = new PatientDto();
+        patientDto.setId(1);
+        patientDto.setLastname("Dupont");
+
+        when(patientRepository.findById(1)).thenReturn(Optional.of(patient));
+        when(patientRepository.updateIgnoringVersion(any(Patient.class))).thenReturn(1);
+        when(patientRepository.deleteIgnoringVersion(1)).thenReturn(1);
+        when(patientMapper.toDto(patient)).thenReturn(patientDto);
+        when(patientMapper.toEntity(any(PatientDto.class))).thenReturn(patient);
+    }
+
+    @Test
+    @DisplayName("Should use a transaction-aware Caffeine cache with statistics enabled")
+    void cacheManager_ShouldBeCaffeineWithStats() {
+        // Given
+        CaffeineCache cache = (CaffeineCache) ((TransactionAwareCacheDecorator) cacheManager
+                .getCache(CacheConfig.PATIENTS_CACHE)).getTargetCache();
+
+        // Then
+        assertTrue(cache.getNativeCache().policy().eviction().isPresent());
+        assertTrue(cache.getNativeCache().policy().isRecordingStats());
+    }
+
+    @Test
+    @DisplayName("Should read a patient from the database only once")
+    void findById_CalledTwice_ShouldHitRepositoryOnce() {
+        // When
+        PatientDto first = patientService.findById(1);
+        PatientDto second = patientService.findById(1);
+
+        // Then
+        assertEquals(first, second);
+        verify(patientRepository, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the cached patient on update")
+    void update_ShouldEvictCachedPatient() {
+        // Given
+        patientService.findById(1);
+
+        // When
+        patientService.update(patientDto);
+        patientService.findById(1);
+
+        // Then
+        verify(patientRepository, times(2)).findById(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the cached patient on delete")
+    void delete_ShouldEvictCachedPatient() {
+        // Given
+        patientService.findById(1);
+
+        // When
+        patientService.delete(patientDto);
+
+        // Then
+        assertNull(cacheManager.getCache(CacheConfig.PATIENTS_CACHE).get(1));
+    }
+
+}
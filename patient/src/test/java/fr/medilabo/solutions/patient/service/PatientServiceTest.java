@@ -1,17 +1,23 @@
 package fr.medilabo.solutions.patient.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -21,16 +27,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.dto.PatientPageDto;
+import fr.medilabo.solutions.patient.exception.InvalidCursorException;
 import fr.medilabo.solutions.patient.exception.ResourceNotFoundException;
+import fr.medilabo.solutions.patient.exception.VersionConflictException;
 import fr.medilabo.solutions.patient.mapper.PatientMapper;
 import fr.medilabo.solutions.patient.model.Patient;
 import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+import fr.medilabo.solutions.patient.util.PatientCursor;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Patient Service Tests")
@@ -42,6 +55,12 @@ class PatientServiceTest {
     @Mock
     private PatientMapper patientMapper;
 
+    @Mock
+    private PatientSearchIndex searchIndex;
+
+    @Mock
+    private TableChangeCounterRepository changeCounterRepository;
+
     @InjectMocks
     private PatientService patientService;
 
@@ -111,6 +130,8 @@ class PatientServiceTest {
         verify(patientMapper).toEntity(patientDto);
         verify(patientRepository).save(patient);
         verify(patientMapper).toDto(patient);
+        verify(searchIndex).index(patientDto);
+        verify(changeCounterRepository).increment("patients");
     }
 
     @Test
@@ -165,7 +186,33 @@ class PatientServiceTest {
     }
 
     @Test
-    @DisplayName("Should update patient successfully")
+    @DisplayName("Should find a patient with only the requested fields")
+    void findById_WithFields_ShouldUseProjection() {
+        // Given
+        List<String> fields = List.of("id", "lastname");
+        when(patientRepository.findByIdWithFields(1, fields)).thenReturn(Optional.of(Map.of("id", 1, "lastname", "Dupont")));
+
+        // When
+        Map<String, Object> result = patientService.findById(1, fields);
+
+        // Then
+        assertEquals("Dupont", result.get("lastname"));
+        verify(patientRepository, never()).findById(1);
+    }
+
+    @Test
+    @DisplayName("Should throw not found when projecting a missing patient")
+    void findById_WithFieldsAndUnknownId_ShouldThrowNotFound() {
+        // Given
+        List<String> fields = List.of("id");
+        when(patientRepository.findByIdWithFields(999, fields)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> patientService.findById(999, fields));
+    }
+
+    @Test
+    @DisplayName("Should update patient in a single statement")
     void update_WithValidPatientDto_ShouldReturnUpdatedPatient() {
         // Given
         PatientDto updatedPatientDto = new PatientDto();
@@ -181,7 +228,8 @@ class PatientServiceTest {
         updatedPatient.setLastname("Dupont Updated");
 
         when(patientMapper.toEntity(updatedPatientDto)).thenReturn(updatedPatient);
-        when(patientRepository.save(updatedPatient)).thenReturn(updatedPatient);
+        when(patientRepository.updateIgnoringVersion(updatedPatient)).thenReturn(1);
+        when(patientRepository.findVersionById(1)).thenReturn(Optional.of(5L));
         when(patientMapper.toDto(updatedPatient)).thenReturn(updatedPatientDto);
 
         // When
@@ -190,22 +238,196 @@ class PatientServiceTest {
         // Then
         assertNotNull(result);
         assertEquals("Jean Updated", result.getFirstname());
+        assertEquals(5L, result.getVersion());
         verify(patientMapper).toEntity(updatedPatientDto);
-        verify(patientRepository).save(updatedPatient);
-        verify(patientMapper).toDto(updatedPatient);
+        verify(patientRepository).updateIgnoringVersion(updatedPatient);
+        verify(patientRepository, never()).save(any(Patient.class));
+        verify(patientRepository, never()).findById(1);
     }
 
     @Test
-    @DisplayName("Should delete patient successfully")
-    void delete_WithValidPatientDto_ShouldDeletePatient() {
+    @DisplayName("Should update patient guarded by its version and return the next version")
+    void update_WithVersion_ShouldIncrementVersion() {
         // Given
+        patientDto.setVersion(3L);
+        PatientDto mappedDto = new PatientDto();
+        mappedDto.setId(1);
         when(patientMapper.toEntity(patientDto)).thenReturn(patient);
+        when(patientRepository.updateIfVersion(patient, 3L)).thenReturn(1);
+        when(patientMapper.toDto(patient)).thenReturn(mappedDto);
+
+        // When
+        PatientDto result = patientService.update(patientDto);
+
+        // Then
+        assertEquals(4L, result.getVersion());
+        verify(patientRepository).updateIfVersion(patient, 3L);
+        verify(changeCounterRepository).increment("patients");
+    }
+
+    @Test
+    @DisplayName("Should throw a conflict when the patient has another version")
+    void update_WithStaleVersion_ShouldThrowConflict() {
+        // Given
+        patientDto.setVersion(3L);
+        when(patientMapper.toEntity(patientDto)).thenReturn(patient);
+        when(patientRepository.updateIfVersion(patient, 3L)).thenReturn(0);
+        when(patientRepository.existsById(1)).thenReturn(true);
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> patientService.update(patientDto));
+        verify(changeCounterRepository, never()).increment("patients");
+    }
+
+    @Test
+    @DisplayName("Should throw not found when updating a missing patient")
+    void update_WithUnknownId_ShouldThrowNotFound() {
+        // Given
+        when(patientMapper.toEntity(patientDto)).thenReturn(patient);
+        when(patientRepository.updateIgnoringVersion(patient)).thenReturn(0);
+        when(patientRepository.existsById(1)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> patientService.update(patientDto));
+    }
+
+    @Test
+    @DisplayName("Should delete patient in a single statement")
+    void delete_WithValidPatientDto_ShouldDeletePatient() {
+        // Given
+        when(patientRepository.deleteIgnoringVersion(1)).thenReturn(1);
 
         // When
         patientService.delete(patientDto);
 
         // Then
-        verify(patientMapper).toEntity(patientDto);
-        verify(patientRepository).delete(patient);
+        verify(patientRepository).deleteIgnoringVersion(1);
+        verify(patientRepository, never()).existsById(1);
+        verify(searchIndex).remove(1);
+        verify(changeCounterRepository).increment("patients");
+    }
+
+    @Test
+    @DisplayName("Should read the change counter of the patients table")
+    void changeCount_ShouldReadPatientsCounter() {
+        // Given
+        when(changeCounterRepository.findChangeCount("patients")).thenReturn(Optional.of(7L));
+
+        // When
+        Optional<Long> result = patientService.changeCount();
+
+        // Then
+        assertEquals(Optional.of(7L), result);
+    }
+
+    @Test
+    @DisplayName("Should throw a conflict when deleting a patient with another version")
+    void deleteById_WithStaleVersion_ShouldThrowConflict() {
+        // Given
+        when(patientRepository.deleteIfVersion(1, 2L)).thenReturn(0);
+        when(patientRepository.existsById(1)).thenReturn(true);
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> patientService.deleteById(1, 2L));
+    }
+
+    @Test
+    @DisplayName("Should return first page with next cursor when more patients exist")
+    void findPage_WithoutCursor_ShouldReturnFirstPageAndNextCursor() {
+        // Given
+        when(patientRepository.findFirstPage(Limit.of(2))).thenReturn(patientList);
+        when(patientMapper.toDto(patient)).thenReturn(patientDto);
+
+        // When
+        PatientPageDto<PatientDto> result = patientService.findPage(null, 1);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getNumberOfElements());
+        assertTrue(result.isFirst());
+        assertFalse(result.isLast());
+        assertEquals(new PatientCursor("Dupont", 1), PatientCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Should resume after cursor position and flag last page")
+    void findPage_WithCursor_ShouldResumeAfterPosition() {
+        // Given
+        String cursor = new PatientCursor("Dupont", 1).encode();
+        when(patientRepository.findPageAfter("Dupont", 1, Limit.of(3))).thenReturn(List.of(patientList.get(1)));
+        when(patientMapper.toDto(patientList.get(1))).thenReturn(patientDtoList.get(1));
+
+        // When
+        PatientPageDto<PatientDto> result = patientService.findPage(cursor, 2);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals("Marie", result.getContent().get(0).getFirstname());
+        assertFalse(result.isFirst());
+        assertTrue(result.isLast());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should return a numbered page with totals")
+    void findPage_WithPageable_ShouldReturnNumberedPage() {
+        // Given
+        Pageable pageable = PageRequest.of(1, 1, Sort.by("lastname").and(Sort.by("id")));
+        when(patientRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(patient), pageable, 3));
+        when(patientMapper.toDto(patient)).thenReturn(patientDto);
+
+        // When
+        PatientPageDto<PatientDto> result = patientService.findPage(pageable);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getNumber());
+        assertEquals(3, result.getTotalPages());
+        assertEquals(3, result.getTotalElements());
+        assertFalse(result.isFirst());
+        assertFalse(result.isLast());
+    }
+
+    @Test
+    @DisplayName("Should return a numbered page with only the requested fields")
+    void findPage_WithFields_ShouldUseProjection() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("lastname").and(Sort.by("id")));
+        List<String> fields = List.of("id", "lastname");
+        Map<String, Object> row = Map.of("id", 1, "lastname", "Dupont");
+        when(patientRepository.findPageWithFields(fields, pageable))
+                .thenReturn(new PageImpl<>(List.of(row), pageable, 2));
+
+        // When
+        PatientPageDto<Map<String, Object>> result = patientService.findPage(pageable, fields);
+
+        // Then
+        assertEquals(List.of(row), result.getContent());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(2, result.getTotalElements());
+        verify(patientRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursor")
+    void findPage_WithMalformedCursor_ShouldThrowException() {
+        assertThrows(InvalidCursorException.class, () -> patientService.findPage("not-a-cursor", 10));
+    }
+
+    @Test
+    @DisplayName("Should stream every patient to the consumer")
+    void exportAll_ShouldStreamEveryPatientAsDto() {
+        // Given
+        when(patientRepository.streamAll()).thenReturn(patientList.stream());
+        when(patientMapper.toDto(patient)).thenReturn(patientDto);
+        when(patientMapper.toDto(patientList.get(1))).thenReturn(patientDtoList.get(1));
+        List<PatientDto> exported = new ArrayList<>();
+
+        // When
+        patientService.exportAll(exported::add);
+
+        // Then
+        assertEquals(patientDtoList, exported);
+        verify(patientRepository).streamAll();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+package fr.medilabo.solutions.patient.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import fr.medilabo.solutions.patient.config.CacheConfig;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+
+@SpringJUnitConfig({ CacheConfig.class, PatientService.class, PatientServiceTransactionTest.TransactionConfig.class })
+@ImportAutoConfiguration({ AopAutoConfiguration.class, CacheAutoConfiguration.class })
+@TestPropertySource(properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=" + CacheConfig.PATIENTS_CACHE })
+@DisplayName("Patient Service Transaction Tests")
+class PatientServiceTransactionTest {
+
+    @MockitoBean
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private PatientMapper patientMapper;
+
+    @MockitoBean
+    private PatientSearchIndex searchIndex;
+
+    @MockitoBean
+    private TableChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RecordingTransactionManager transactionManager;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.PATIENTS_CACHE);
+        cache.clear();
+        transactionManager.commits = 0;
+        transactionManager.rollbacks = 0;
+        transactionManager.beforeCommit = () -> {
+        };
+
+        Patient patient = new Patient();
+        patient.setId(1);
+        when(patientMapper.toEntity(any(PatientDto.class))).thenReturn(patient);
+        when(patientMapper.toDto(patient)).thenReturn(patientDto(1, "Nouveau"));
+    }
+
+    @Test
+    @DisplayName("Should evict the updated patient only after commit")
+    void update_ShouldEvictAfterCommit() {
+        // Given : une lecture concurrente remet l'ancien patient en cache juste avant la validation
+        when(patientRepository.updateIfVersion(any(Patient.class), eq(3L)))
+                .thenReturn(1);
+        transactionManager.beforeCommit = () -> putFromAnotherThread(patientDto(1, "Ancien"));
+        PatientDto update = patientDto(1, "Nouveau");
+        update.setVersion(3L);
+
+        // When
+        patientService.update(update);
+
+        // Then
+        assertEquals(1, transactionManager.commits);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    @DisplayName("Should evict the deleted patient only after commit")
+    void deleteById_ShouldEvictAfterCommit() {
+        // Given
+        when(patientRepository.deleteIfVersion(1, 2L)).thenReturn(1);
+        transactionManager.beforeCommit = () -> putFromAnotherThread(patientDto(1, "Ancien"));
+
+        // When
+        patientService.deleteById(1, 2L);
+
+        // Then
+        assertEquals(1, transactionManager.commits);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    @DisplayName("Should index the updated patient only after commit")
+    void update_ShouldIndexAfterCommit() {
+        // Given
+        when(patientRepository.updateIfVersion(any(Patient.class), eq(3L)))
+                .thenReturn(1);
+        transactionManager.beforeCommit = () -> verify(searchIndex, never()).index(any(PatientDto.class));
+        PatientDto update = patientDto(1, "Nouveau");
+        update.setVersion(3L);
+
+        // When
+        PatientDto result = patientService.update(update);
+
+        // Then
+        assertEquals(1, transactionManager.commits);
+        verify(searchIndex).index(result);
+    }
+
+    @Test
+    @DisplayName("Should remove the deleted patient from the index only after commit")
+    void deleteById_ShouldRemoveFromIndexAfterCommit() {
+        // Given
+        when(patientRepository.deleteIfVersion(1, 2L)).thenReturn(1);
+        transactionManager.beforeCommit = () -> verify(searchIndex, never()).remove(1);
+
+        // When
+        patientService.deleteById(1, 2L);
+
+        // Then
+        assertEquals(1, transactionManager.commits);
+        verify(searchIndex).remove(1);
+    }
+
+    @Test
+    @DisplayName("Should roll back the delete when the change counter cannot be incremented")
+    void deleteById_WhenCounterFails_ShouldRollBack() {
+        // Given
+        AtomicBoolean deletedInTransaction = new AtomicBoolean();
+        when(patientRepository.deleteIfVersion(1, 2L)).thenAnswer(invocation -> {
+            deletedInTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return 1;
+        });
+        when(changeCounterRepository.increment(PatientService.PATIENTS_TABLE))
+                .thenThrow(new QueryTimeoutException("Délai dépassé"));
+
+        // When
+        assertThrows(QueryTimeoutException.class, () -> patientService.deleteById(1, 2L));
+
+        // Then
+        assertTrue(deletedInTransaction.get());
+        assertEquals(0, transactionManager.commits);
+        assertEquals(1, transactionManager.rollbacks);
+        verify(searchIndex, never()).remove(1);
+    }
+
+    // Une lecture concurrente s'exécute hors de la transaction en cours
+    private void putFromAnotherThread(PatientDto patientDto) {
+        Thread reader = Thread.ofVirtual().start(() -> cache.put(patientDto.getId(), patientDto));
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PatientDto patientDto(int id, String lastname) {
+        PatientDto patientDto = new PatientDto();
+        patientDto.setId(id);
+        patientDto.setLastname(lastname);
+        return patientDto;
+    }
+
+    // Transaction la plus externe : l'éviction a lieu dans la transaction, avant sa validation
+    @Configuration
+    @EnableTransactionManagement(order = Ordered.HIGHEST_PRECEDENCE)
+    static class TransactionConfig {
+
+        @Bean
+        RecordingTransactionManager transactionManager() {
+            return new RecordingTransactionManager();
+        }
+    }
+
+    /**
+     * Gestionnaire de transactions sans base : il déclenche les synchronisations comme
+     * un vrai gestionnaire et compte les validations et les annulations.
+     */
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        int commits;
+        int rollbacks;
+        // Appelé juste avant la validation, pour simuler une lecture concurrente
+        Runnable beforeCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            beforeCommit.run();
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks++;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package fr.medilabo.solutions.patient.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import fr.medilabo.solutions.patient.config.CacheConfig;
+import fr.medilabo.solutions.patient.dto.PatientDto;
+import fr.medilabo.solutions.patient.exception.ResourceNotFoundException;
+import fr.medilabo.solutions.patient.mapper.PatientMapper;
+import fr.medilabo.solutions.patient.model.Patient;
+import fr.medilabo.solutions.patient.repository.PatientRepository;
+import fr.medilabo.solutions.patient.repository.TableChangeCounterRepository;
+
+@SpringJUnitConfig({ CacheConfig.class, PatientService.class })
+@ImportAutoConfiguration({ AopAutoConfiguration.class, CacheAutoConfiguration.class })
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=" + CacheConfig.PATIENTS_CACHE })
+@DisplayName("Patient Service Cache Tests (virtual threads)")
+class PatientServiceVirtualThreadCacheTest {
+
+    @MockitoBean
+    private PatientRepository patientRepository;
+
+    @MockitoBean
+    private PatientMapper patientMapper;
+
+    @MockitoBean
+    private PatientSearchIndex searchIndex;
+
+    @MockitoBean
+    private TableChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PATIENTS_CACHE).clear();
+    }
+
+    @Test
+    @DisplayName("Should load a missing patient once, on a virtual thread, outside the cache lock")
+    void findById_ShouldLoadOnVirtualThreadInAsyncMode() {
+        // Given
+        Patient patient = new Patient();
+        patient.setId(1);
+        PatientDto patientDto = new PatientDto();
+        patientDto.setId(1);
+        AtomicBoolean loadedOnVirtualThread = new AtomicBoolean();
+        when(patientRepository.findById(1)).thenAnswer(invocation -> {
+            loadedOnVirtualThread.set(Thread.currentThread().isVirtual());
+            return Optional.of(patient);
+        });
+        when(patientMapper.toDto(patient)).thenReturn(patientDto);
+
+        // When
+        PatientDto first = patientService.findById(1);
+        PatientDto second = patientService.findById(1);
+
+        // Then
+        CaffeineCache cache = (CaffeineCache) ((TransactionAwareCacheDecorator) cacheManager
+                .getCache(CacheConfig.PATIENTS_CACHE)).getTargetCache();
+        assertNotNull(cache.getAsyncCache());
+        assertEquals(first, second);
+        assertTrue(loadedOnVirtualThread.get());
+        verify(patientRepository, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("Should still throw not found when the asynchronous load fails")
+    void findById_WithUnknownId_ShouldThrowNotFound() {
+        // Given
+        when(patientRepository.findById(999)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> patientService.findById(999));
+    }
+
+}
@@ -0,0 +1,71 @@
+package fr.medilabo.solutions.patient.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Internal Identity Verifier Tests")
+class InternalIdentityVerifierTest {
+
+    private static final String SECRET = "monSecretIdentiteInterneTresLong987654321ZYXWVU";
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final InternalIdentityVerifier verifier = new InternalIdentityVerifier(SECRET,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Should accept a header signed by the gateway")
+    void verify_WithValidHeader_ShouldReturnUsername() throws Exception {
+        // Given
+        String header = sign(SECRET, "stéf", NOW.plusSeconds(30));
+
+        // When
+        Optional<String> username = verifier.verify(header);
+
+        // Then
+        assertEquals(Optional.of("stéf"), username);
+    }
+
+    @Test
+    @DisplayName("Should reject an expired header")
+    void verify_WithExpiredHeader_ShouldReturnEmpty() throws Exception {
+        assertTrue(verifier.verify(sign(SECRET, "stef", NOW.minusSeconds(1))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a header signed with another secret or tampered with")
+    void verify_WithForgedHeader_ShouldReturnEmpty() throws Exception {
+        // Given
+        String forged = sign("unAutreSecretQuiNestPasCeluiDeLaGateway", "stef", NOW.plusSeconds(30));
+        String valid = sign(SECRET, "stef", NOW.plusSeconds(30));
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString("admin".getBytes(StandardCharsets.UTF_8))
+                + valid.substring(valid.indexOf('.'));
+
+        // When & Then
+        assertTrue(verifier.verify(forged).isEmpty());
+        assertTrue(verifier.verify(tampered).isEmpty());
+        assertTrue(verifier.verify("pas-un-en-tete").isEmpty());
+        assertTrue(verifier.verify("a.b.c").isEmpty());
+    }
+
+    private static String sign(String secret, String subject, Instant expiresAt) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = encoder.encodeToString(subject.getBytes(StandardCharsets.UTF_8)) + '.' + expiresAt.getEpochSecond();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return payload + '.' + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+}